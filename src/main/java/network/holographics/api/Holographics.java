@@ -6,6 +6,7 @@ import network.holographics.api.holograms.HologramPage;
 import network.holographics.api.holograms.enums.HologramLineType;
 import network.holographics.api.utils.Common;
 import network.holographics.api.utils.items.HologramItem;
+import network.holographics.api.utils.scheduler.S;
 import org.apache.commons.lang3.Validate;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -110,6 +111,25 @@ public final class Holographics {
         }
     }
 
+    /**
+     * Let Holographics know, that the permissions of the given player changed.
+     * <p>
+     * Cached permission checks of the player are dropped and the visibility
+     * of all holograms is re-evaluated for them. Call this from the permission
+     * change events of your permission plugin.
+     *
+     * @param player The player.
+     * @throws IllegalArgumentException If the player is null.
+     */
+    public static void updatePermissions(Player player) throws IllegalArgumentException {
+        Validate.notNull(player);
+
+        HolographicsInternal internal = HolographicsInternalAPI.get();
+        internal.getPermissionCache().invalidate(player);
+        internal.getHologramManager().invalidateVisibility(player);
+        S.async(() -> internal.getHologramManager().updateVisibility(player));
+    }
+
     /**
      * Remove a hologram by its name.
      * <p>
@@ -6,7 +6,9 @@ import network.holographics.api.holograms.Hologram;
 import network.holographics.api.holograms.HologramManager;
 import network.holographics.api.nms.NMS;
 import network.holographics.api.nms.PacketListener;
+import network.holographics.api.player.PermissionCache;
 import network.holographics.api.player.PlayerListener;
+import network.holographics.api.player.PlayerSnapshotManager;
 import network.holographics.api.utils.BungeeUtils;
 import network.holographics.api.utils.Common;
 import network.holographics.api.utils.DExecutor;
@@ -14,6 +16,7 @@ import network.holographics.api.utils.event.EventFactory;
 import network.holographics.api.utils.reflect.ReflectionUtil;
 import network.holographics.api.utils.reflect.Version;
 import network.holographics.api.utils.tick.Ticker;
+import network.holographics.api.world.BlockSnapshotCache;
 import network.holographics.api.world.WorldListener;
 import lombok.Getter;
 import lombok.NonNull;
@@ -28,10 +31,14 @@ import java.util.logging.Level;
 public final class HolographicsInternal {
 
     private final JavaPlugin plugin;
+    private Settings settings;
     private HologramManager hologramManager;
     private FeatureManager featureManager;
     private AnimationManager animationManager;
     private PacketListener packetListener;
+    private PlayerSnapshotManager playerSnapshotManager;
+    private PermissionCache permissionCache;
+    private BlockSnapshotCache blockSnapshotCache;
     private Ticker ticker;
     private File dataFolder;
     private boolean updateAvailable;
@@ -58,10 +65,19 @@ public final class HolographicsInternal {
     }
 
     public void enable() {
+        this.settings = Settings.load(new File(getDataFolder(), "config.yml"));
+
         NMS.init();
-        DExecutor.init(3);
+        DExecutor.setConfiguredThreads(settings.getThreads());
+        DExecutor.setBlockingThreads(settings.getBlockingThreads());
+        DExecutor.setVirtualThreadsRequested(settings.isVirtualThreads());
+        DExecutor.init();
 
         this.ticker = new Ticker();
+        this.playerSnapshotManager = new PlayerSnapshotManager();
+        this.permissionCache = new PermissionCache();
+        this.permissionCache.setTimeToLive(settings.getPermissionCacheTtl());
+        this.blockSnapshotCache = new BlockSnapshotCache();
         this.hologramManager = new HologramManager();
         this.featureManager = new FeatureManager();
         this.animationManager = new AnimationManager();
@@ -75,11 +91,16 @@ public final class HolographicsInternal {
     }
 
     public void disable() {
+        // Destroy packets of the holograms have to reach the players right away, the ticker won't flush them anymore.
+        NMS.getInstance().setPacketBatching(false);
         this.packetListener.destroy();
         this.featureManager.destroy();
         this.hologramManager.destroy();
         this.animationManager.destroy();
+        this.permissionCache.destroy();
         this.ticker.destroy();
+        this.playerSnapshotManager.destroy();
+        this.blockSnapshotCache.destroy();
 
         for (Hologram hologram : Hologram.getCachedHolograms()) {
             hologram.destroy();
@@ -0,0 +1,68 @@
+package network.holographics.api;
+
+import lombok.Getter;
+import lombok.NonNull;
+import network.holographics.api.utils.Common;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+
+/**
+ * Settings of Holographics, read from the config.yml in the data folder when
+ * the plugin is enabled. Missing keys are added with their default values, so
+ * the file always lists all available settings.
+ */
+@Getter
+public final class Settings {
+
+    private final int threads;
+    private final int blockingThreads;
+    private final boolean virtualThreads;
+    private final long permissionCacheTtl;
+
+    private Settings(@NonNull YamlConfiguration config) {
+        this.threads = Math.max(1, config.getInt("executor.threads"));
+        this.blockingThreads = Math.max(1, config.getInt("executor.blocking-threads"));
+        this.virtualThreads = config.getBoolean("executor.virtual-threads");
+        this.permissionCacheTtl = config.getLong("permission-cache.ttl");
+    }
+
+    /**
+     * Load the settings from the given file.
+     *
+     * @param file The file.
+     * @return The loaded settings.
+     */
+    @NonNull
+    public static Settings load(@NonNull File file) {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        boolean changed = addDefault(config, "executor.threads", 3);
+        changed |= addDefault(config, "executor.blocking-threads", 4);
+        changed |= addDefault(config, "executor.virtual-threads", false);
+        changed |= addDefault(config, "permission-cache.ttl", 5000L);
+
+        if (changed) {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                    throw new IOException("Failed to create " + parent.getPath());
+                }
+                config.save(file);
+            } catch (IOException e) {
+                Common.log(Level.WARNING, "Failed to save default settings to " + file.getPath(), e);
+            }
+        }
+        return new Settings(config);
+    }
+
+    private static boolean addDefault(@NonNull YamlConfiguration config, @NonNull String path, @NonNull Object value) {
+        if (config.contains(path)) {
+            return false;
+        }
+        config.set(path, value);
+        return true;
+    }
+
+}
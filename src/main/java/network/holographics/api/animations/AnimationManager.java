@@ -74,6 +74,22 @@ public class AnimationManager extends Ticked {
         return string;
     }
 
+    /**
+     * Replace all animations in the given string with their plain text, so
+     * the string renders the same on every tick.
+     *
+     * @param string The string.
+     * @return The string without animations.
+     */
+    @NonNull
+    public String stripTextAnimations(@NonNull String string) {
+        Matcher matcher = ANIMATION_PATTERN.matcher(string);
+        while (matcher.find()) {
+            string = string.replace(matcher.group(), matcher.group(3));
+        }
+        return string.replace("&u", "");
+    }
+
     public boolean
     containsAnimations(@NonNull String string) {
         Matcher matcher = ANIMATION_PATTERN.matcher(string);
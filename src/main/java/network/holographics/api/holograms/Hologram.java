@@ -1,6 +1,7 @@
 package network.holographics.api.holograms;
 
 import com.google.common.collect.ImmutableList;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -8,21 +9,29 @@ import network.holographics.api.HolographicsInternal;
 import network.holographics.api.HolographicsInternalAPI;
 import network.holographics.api.actions.ClickType;
 import network.holographics.api.holograms.enums.EnumFlag;
+import network.holographics.api.holograms.enums.OcclusionMode;
+import network.holographics.api.holograms.objects.LodBand;
 import network.holographics.api.holograms.objects.UpdatingHologramObject;
 import network.holographics.api.nms.NMS;
+import network.holographics.api.player.PlayerSnapshot;
+import network.holographics.api.player.ViewerState;
 import network.holographics.api.utils.collection.DList;
 import network.holographics.api.utils.event.EventFactory;
 import network.holographics.api.utils.reflect.Version;
 import network.holographics.api.utils.scheduler.S;
 import network.holographics.api.utils.tick.ITicked;
+import network.holographics.api.utils.tick.PhaseBalancer;
+import network.holographics.api.utils.tick.Ticker;
 import network.holographics.event.HologramClickEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -112,6 +121,37 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
     public boolean downOrigin = false;
     public boolean alwaysFacePlayer = false;
     private final @NonNull AtomicInteger tickCounter;
+    @Getter(AccessLevel.NONE)
+    private final @NonNull AtomicLong lodTicks;
+
+    /**
+     * Phase of the periodic updates of this hologram, assigned by the tickers
+     * {@link PhaseBalancer}, so that holograms with the same update interval
+     * don't all update on the same tick.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile int updatePhase = -1;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long updatePhaseInterval;
+
+    /**
+     * Factor, the update and animation intervals of this hologram are currently
+     * stretched by, because the {@link HologramGovernor} degraded it.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile int updateThrottle = 1;
+    @Getter(AccessLevel.NONE)
+    private final @NonNull Set<UUID> culledViewers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * UID of the world this hologram is in. It's cached, so range checks don't
+     * have to resolve the world of the location every time.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile UUID worldId;
 
     /*
      *	Constructors
@@ -148,10 +188,18 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         this.enabled = enabled;
         this.saveToFile = false;
         this.tickCounter = new AtomicInteger();
+        this.lodTicks = new AtomicLong();
+        this.assignUpdatePhase();
+        this.updateWorldId();
         this.addPage();
         this.register();
 
         CACHED_HOLOGRAMS.put(this.name, this);
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.getGrid().update(this);
+        }
+        invalidateVisibility();
     }
 
     /*
@@ -168,15 +216,129 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         return 1L;
     }
 
+    /**
+     * Start ticking this hologram. Holograms aren't registered with the ticker
+     * one by one, they are ticked in the shard of their region instead.
+     */
+    @Override
+    public void register() {
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.getShards().add(this);
+        }
+    }
+
+    /**
+     * Stop ticking this hologram.
+     */
+    @Override
+    public void unregister() {
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.getShards().remove(this);
+        }
+    }
+
     @Override
     public void tick() {
+        tick(new ViewerCache());
+    }
+
+    /**
+     * Tick this hologram, resolving its viewers through the given cache, which
+     * is shared by all holograms of the same shard during a tick.
+     *
+     * @param viewerCache The viewer cache.
+     */
+    void tick(@NonNull ViewerCache viewerCache) {
+        // The counter, that drives this hologram, shifted by its phase.
+        long tick = lodTicks.incrementAndGet() - Math.max(0, updatePhase);
+        // Throttled holograms skip ticks; the phase keeps them spread.
+        if (updateThrottle > 1 && tick % updateThrottle != 0) {
+            return;
+        }
+        if (!getLodBands().isEmpty()) {
+            tickLod(tick, viewerCache);
+            return;
+        }
         if (tickCounter.get() == getUpdateInterval()) {
             tickCounter.set(1);
-            updateAll();
+            updateAll(viewerCache);
             return;
         }
         tickCounter.incrementAndGet();
-        updateAnimationsAll();
+        updateAnimationsAll(viewerCache);
+    }
+
+    /**
+     * Update all viewers at the rates of their level of detail bands.
+     *
+     * @param tick        The current tick of this hologram.
+     * @param viewerCache The viewer cache of the current tick.
+     */
+    private void tickLod(long tick, @NonNull ViewerCache viewerCache) {
+        if (isDisabled()) {
+            return;
+        }
+        for (Player player : viewerCache.getPlayers(getViewers())) {
+            PlayerSnapshot snapshot = viewerCache.getSnapshot(player);
+            if (snapshot == null) {
+                continue;
+            }
+            LodBand band = getLodBand(snapshot.distanceSquared(location.getX(), location.getY(), location.getZ()));
+            if (tick % band.getUpdateInterval() == 0) {
+                update(player, !band.isStaticText());
+            } else if (!band.isStaticText() && (tick % band.getAnimationInterval() == 0 || culledViewers.contains(player.getUniqueId()))) {
+                // Viewers coming back into view are caught up right away.
+                updateAnimations(player);
+            }
+        }
+    }
+
+    /**
+     * Pick a new phase for the periodic updates of this hologram and shift the
+     * update counter, so the updates happen on the ticks matching the phase.
+     * Holograms are driven by their own tick counter, not by the tick of the
+     * ticker, so the phase is applied to that counter.
+     */
+    private void assignUpdatePhase() {
+        Ticker ticker = HOLOGRAPHICS_INTERNAL.getTicker();
+        if (ticker == null) {
+            return;
+        }
+        PhaseBalancer balancer = ticker.getPhaseBalancer();
+        synchronized (tickCounter) {
+            releaseUpdatePhase();
+            long interval = Math.max(1, getUpdateInterval());
+            int phase = balancer.acquire(interval);
+            long now = lodTicks.get();
+            this.updatePhase = phase;
+            this.updatePhaseInterval = interval;
+            // The next tick updates, if its shifted counter is a multiple of the interval.
+            this.tickCounter.set((int) Math.floorMod(now - phase, interval) + 1);
+        }
+    }
+
+    private void releaseUpdatePhase() {
+        Ticker ticker = HOLOGRAPHICS_INTERNAL.getTicker();
+        synchronized (tickCounter) {
+            if (ticker != null && updatePhase >= 0) {
+                ticker.getPhaseBalancer().release(updatePhaseInterval, updatePhase);
+            }
+            this.updatePhase = -1;
+        }
+    }
+
+    void setUpdateThrottle(int updateThrottle) {
+        this.updateThrottle = Math.max(1, updateThrottle);
+    }
+
+    @Override
+    public void setUpdateInterval(int updateInterval) {
+        super.setUpdateInterval(updateInterval);
+        if (CACHED_HOLOGRAMS.get(getName()) == this) {
+            assignUpdatePhase();
+        }
     }
 
     /*
@@ -207,7 +369,14 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
     public void destroy() {
         this.disable(DisableCause.API);
         this.viewerPages.clear();
-        HOLOGRAPHICS_INTERNAL.getHologramManager().removeHologram(getName());
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.removeHologram(getName());
+            hologramManager.getGrid().remove(this);
+            hologramManager.getViewerStates().forEach(state -> state.setOccluded(this, false));
+        }
+        invalidateVisibility();
+        releaseUpdatePhase();
         CACHED_HOLOGRAMS.remove(getName());
     }
 
@@ -222,6 +391,7 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
             this.showAll();
             this.register();
         }
+        invalidateVisibility();
     }
 
     /**
@@ -235,6 +405,7 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
             this.hideAll();
             super.disable(cause);
         }
+        invalidateVisibility();
     }
 
     @Override
@@ -265,9 +436,97 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
     @Override
     public void setLocation(@NonNull Location location) {
         super.setLocation(location);
+        UUID previousWorldId = worldId;
+        updateWorldId();
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null && previousWorldId != null && !previousWorldId.equals(worldId)) {
+            // Players in the previous world have to be re-evaluated too, so the hologram gets hidden.
+            hologramManager.invalidateVisibility(previousWorldId);
+        }
+        reindex();
+        if (hologramManager != null) {
+            hologramManager.getShards().update(this);
+        }
         teleportClickableEntitiesAll();
     }
 
+    /**
+     * Set the display range of this hologram. The spatial index is notified
+     * so that the new range is taken into account by visibility queries.
+     *
+     * @param displayRange The new display range in blocks.
+     */
+    @Override
+    public void setDisplayRange(int displayRange) {
+        super.setDisplayRange(displayRange);
+        reindex();
+    }
+
+    @Override
+    public void setExitRange(int exitRange) {
+        super.setExitRange(exitRange);
+        reindex();
+    }
+
+    @Override
+    public void setLookAheadTicks(int lookAheadTicks) {
+        super.setLookAheadTicks(lookAheadTicks);
+        reindex();
+    }
+
+    @Override
+    public void setPriority(int priority) {
+        super.setPriority(priority);
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.getGovernor().updatePriority(this);
+        }
+        invalidateVisibility();
+    }
+
+    /**
+     * Update the position of this hologram in the spatial index, unless
+     * the hologram has already been destroyed.
+     */
+    private void reindex() {
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null && CACHED_HOLOGRAMS.get(getName()) == this) {
+            hologramManager.getGrid().update(this);
+            invalidateVisibility();
+        }
+    }
+
+    private void updateWorldId() {
+        /*
+         * Some forks (e.g. Pufferfish) throw an exception, when we try to get
+         * the world of a location, which is not loaded. The hologram can't be
+         * in range of anyone in that case.
+         */
+        try {
+            World world = location.getWorld();
+            this.worldId = world == null ? null : world.getUID();
+        } catch (Exception ignored) {
+            this.worldId = null;
+        }
+    }
+
+    /**
+     * Let the {@link HologramManager} know, that the visibility of this hologram
+     * might have changed for some players, so the players in its world get re-evaluated.
+     */
+    private void invalidateVisibility() {
+        HologramManager hologramManager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        if (hologramManager != null) {
+            hologramManager.invalidateVisibility(worldId);
+        }
+    }
+
+    @Override
+    public void setPermission(String permission) {
+        super.setPermission(permission);
+        invalidateVisibility();
+    }
+
     /**
      * Get hologram size. (Number of pages)
      *
@@ -299,6 +558,10 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         hologram.setFacing(this.getFacing());
         hologram.setDisplayRange(this.getDisplayRange());
         hologram.setUpdateRange(this.getUpdateRange());
+        hologram.setExitRange(this.getExitRange());
+        hologram.setLookAheadTicks(this.getLookAheadTicks());
+        hologram.setPriority(this.getPriority());
+        hologram.setLodBands(this.getLodBands());
         hologram.setUpdateInterval(this.getUpdateInterval());
         hologram.addFlags(this.getFlags().toArray(new EnumFlag[0]));
         hologram.setDefaultVisibleState(this.isDefaultVisibleState());
@@ -363,6 +626,7 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
      */
     public void setDefaultVisibleState(boolean state) {
         this.defaultVisibleState = state;
+        invalidateVisibility();
     }
 
     /**
@@ -381,6 +645,8 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         UUID uniqueId = player.getUniqueId();
         if (!hidePlayers.contains(uniqueId)) {
             hidePlayers.add(player.getUniqueId());
+            HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player).addStateHologram(this);
+            invalidateVisibility();
         }
     }
 
@@ -391,7 +657,10 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
      */
     public void removeHidePlayer(@NonNull Player player) {
         UUID uniqueId = player.getUniqueId();
-        hidePlayers.remove(uniqueId);
+        if (hidePlayers.remove(uniqueId)) {
+            removeStateHologram(uniqueId);
+            invalidateVisibility();
+        }
     }
 
     /**
@@ -413,6 +682,8 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         UUID uniqueId = player.getUniqueId();
         if (!showPlayers.contains(uniqueId)) {
             showPlayers.add(player.getUniqueId());
+            HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player).addStateHologram(this);
+            invalidateVisibility();
         }
     }
 
@@ -423,7 +694,26 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
      */
     public void removeShowPlayer(@NonNull Player player) {
         UUID uniqueId = player.getUniqueId();
-        showPlayers.remove(uniqueId);
+        if (showPlayers.remove(uniqueId)) {
+            removeStateHologram(uniqueId);
+            invalidateVisibility();
+        }
+    }
+
+    /**
+     * Remove this hologram from the state index of the given player, unless
+     * the player still has a show or hide state or a page set.
+     *
+     * @param uniqueId UUID of the player.
+     */
+    private void removeStateHologram(@NonNull UUID uniqueId) {
+        if (hidePlayers.contains(uniqueId) || showPlayers.contains(uniqueId) || viewerPages.containsKey(uniqueId)) {
+            return;
+        }
+        ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(uniqueId);
+        if (state != null) {
+            state.removeStateHologram(this);
+        }
     }
 
     /**
@@ -471,6 +761,10 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         // Add player to viewers
         viewerPages.put(player.getUniqueId(), pageIndex);
         viewers.add(player.getUniqueId());
+        ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player);
+        state.addVisibleHologram(this);
+        // The page is remembered after hiding, so it has to be cleaned up on quit.
+        state.addStateHologram(this);
         showClickableEntities(player);
     }
 
@@ -483,6 +777,16 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
     }
 
     public void update(@NonNull Player player) {
+        update(player, true);
+    }
+
+    /**
+     * Update this hologram for the given player.
+     *
+     * @param player  Given player.
+     * @param animate False to render the text without animations.
+     */
+    public void update(@NonNull Player player, boolean animate) {
         synchronized (visibilityMutex) {
             if (hasFlag(EnumFlag.DISABLE_UPDATING) || !isVisible(player) || !isInUpdateRange(player) || isHideState(player)) {
                 return;
@@ -490,15 +794,19 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
 
             HologramPage page = getPage(player);
             if (page != null) {
-                page.getLines().forEach(line -> line.update(player));
+                page.getLines().forEach(line -> line.update(animate, player));
             }
         }
     }
 
     public void updateAll() {
+        updateAll(new ViewerCache());
+    }
+
+    private void updateAll(@NonNull ViewerCache viewerCache) {
         synchronized (visibilityMutex) {
             if (isEnabled() && !hasFlag(EnumFlag.DISABLE_UPDATING)) {
-                getViewerPlayers().forEach(this::update);
+                viewerCache.getPlayers(getViewers()).forEach(this::update);
             }
         }
     }
@@ -508,6 +816,9 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
             if (hasFlag(EnumFlag.DISABLE_ANIMATIONS) || !isVisible(player) || !isInUpdateRange(player) || isHideState(player)) {
                 return;
             }
+            if (isOutOfView(player)) {
+                return;
+            }
 
             HologramPage page = getPage(player);
             if (page != null) {
@@ -516,10 +827,40 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
         }
     }
 
+    /**
+     * Check whether the animation frames for the given player should be skipped,
+     * because they are facing away from this hologram or it's occluded. Players,
+     * that are culled, are remembered, so they get caught up once the hologram
+     * is back in view.
+     *
+     * @param player The player.
+     * @return True if the player can't see this hologram, false otherwise.
+     * @see HologramManager#setViewCulling(boolean)
+     * @see HologramManager#setOcclusionMode(OcclusionMode)
+     */
+    private boolean isOutOfView(@NonNull Player player) {
+        HologramManager manager = HOLOGRAPHICS_INTERNAL.getHologramManager();
+        boolean culled = manager.getOcclusionMode() == OcclusionMode.FREEZE && manager.isOccluded(player, this);
+        if (!culled && manager.isViewCulling()) {
+            PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+            culled = snapshot != null && !manager.isInView(snapshot, location.getX(), location.getY(), location.getZ());
+        }
+        if (culled) {
+            culledViewers.add(player.getUniqueId());
+        } else {
+            culledViewers.remove(player.getUniqueId());
+        }
+        return culled;
+    }
+
     public void updateAnimationsAll() {
+        updateAnimationsAll(new ViewerCache());
+    }
+
+    private void updateAnimationsAll(@NonNull ViewerCache viewerCache) {
         synchronized (visibilityMutex) {
             if (isEnabled() && !hasFlag(EnumFlag.DISABLE_ANIMATIONS)) {
-                getViewerPlayers().forEach(this::updateAnimations);
+                viewerCache.getPlayers(getViewers()).forEach(this::updateAnimations);
             }
         }
     }
@@ -533,7 +874,51 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
                     hideClickableEntities(player);
                 }
                 viewers.remove(player.getUniqueId());
+                ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player.getUniqueId());
+                if (state != null) {
+                    state.removeVisibleHologram(this);
+                    forgetOcclusion(state);
+                }
             }
+            culledViewers.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Forget that the given player can see this hologram, without sending any
+     * packets. Used when the client has already removed the entities, e.g. by
+     * unloading their chunk.
+     *
+     * @param player The player.
+     */
+    public void forget(@NonNull Player player) {
+        synchronized (visibilityMutex) {
+            if (isVisible(player)) {
+                HologramPage page = getPage(player);
+                if (page != null) {
+                    page.getLines().forEach(line -> line.forget(player));
+                }
+                viewers.remove(player.getUniqueId());
+                ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player.getUniqueId());
+                if (state != null) {
+                    state.removeVisibleHologram(this);
+                    forgetOcclusion(state);
+                }
+            }
+            culledViewers.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Forget whether this hologram is occluded for the player of the given state,
+     * after it was hidden from them. When occluded holograms are hidden, the state
+     * is kept, as it's what keeps the hologram hidden.
+     *
+     * @param state The viewer state.
+     */
+    private void forgetOcclusion(@NonNull ViewerState state) {
+        if (HOLOGRAPHICS_INTERNAL.getHologramManager().getOcclusionMode() != OcclusionMode.HIDE) {
+            state.setOccluded(this, false);
         }
     }
 
@@ -613,24 +998,53 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
 
     /**
      * Check whether the given player is in display range of this hologram object.
+     * <p>
+     * Players, that can already see this hologram, are checked against the exit
+     * range instead of the display range. For the other players, their position
+     * is also predicted {@link #getLookAheadTicks()} ticks ahead, so the hologram
+     * can be spawned right before they reach it.
      *
      * @param player Given player.
      * @return Boolean whether the given player is in display range of this hologram object.
      */
     public boolean isInDisplayRange(@NonNull Player player) {
-        /*
-         * Some forks (e.g. Pufferfish) throw an exception, when we try to get
-         * the world of a location, which is not loaded. We catch this exception
-         * and return false, because the player is not in range.
-         */
-        try {
-            if (player.getWorld().equals(location.getWorld())) {
-                return player.getLocation().distanceSquared(location) <= displayRange * displayRange;
-            }
-        } catch (Exception ignored) {
-            // Ignored
+        PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+        return snapshot != null && isInDisplayRange(player, snapshot);
+    }
+
+    /**
+     * Check whether the given player would be in display range of this hologram
+     * object, if they were at the position of the given snapshot.
+     *
+     * @param player   Given player.
+     * @param snapshot Position of the player.
+     * @return Boolean whether the given player is in display range of this hologram object.
+     * @see #isInDisplayRange(Player)
+     */
+    public boolean isInDisplayRange(@NonNull Player player, @NonNull PlayerSnapshot snapshot) {
+        if (!snapshot.isIn(worldId)) {
+            return false;
         }
-        return false;
+        double distanceSquared = snapshot.distanceSquared(location.getX(), location.getY(), location.getZ());
+        if (isVisible(player)) {
+            int exitRange = getExitRange();
+            return distanceSquared <= exitRange * exitRange;
+        }
+        if (distanceSquared <= displayRange * displayRange) {
+            return true;
+        }
+        return lookAheadTicks > 0 && isInLookAheadRange(snapshot);
+    }
+
+    private boolean isInLookAheadRange(@NonNull PlayerSnapshot snapshot) {
+        ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(snapshot.getUniqueId());
+        if (state == null) {
+            return false;
+        }
+        double dx = snapshot.getX() + state.getVelocityX() * lookAheadTicks - location.getX();
+        double dy = snapshot.getY() + state.getVelocityY() * lookAheadTicks - location.getY();
+        double dz = snapshot.getZ() + state.getVelocityZ() * lookAheadTicks - location.getZ();
+        return dx * dx + dy * dy + dz * dz <= displayRange * displayRange;
     }
 
     /**
@@ -641,19 +1055,18 @@ public class Hologram extends UpdatingHologramObject implements ITicked {
      */
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean isInUpdateRange(@NonNull Player player) {
-        /*
-         * Some forks (e.g. Pufferfish) throw an exception, when we try to get
-         * the world of a location, which is not loaded. We catch this exception
-         * and return false, because the player is not in range.
-         */
-        try {
-            if (player.getWorld().equals(location.getWorld())) {
-                return player.getLocation().distanceSquared(location) <= updateRange * updateRange;
-            }
-        } catch (Exception ignored) {
-            // Ignored
-        }
-        return false;
+        PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+        return snapshot != null && isInUpdateRange(snapshot);
+    }
+
+    /**
+     * Check whether the given snapshot is in update range of this hologram object.
+     *
+     * @param snapshot Position of the player.
+     * @return Boolean whether the given snapshot is in update range of this hologram object.
+     */
+    public boolean isInUpdateRange(@NonNull PlayerSnapshot snapshot) {
+        return snapshot.isIn(worldId) && snapshot.distanceSquared(location.getX(), location.getY(), location.getZ()) <= updateRange * updateRange;
     }
 
     public void setDownOrigin(boolean downOrigin) {
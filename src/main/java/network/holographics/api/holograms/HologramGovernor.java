@@ -0,0 +1,223 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.utils.scheduler.Clock;
+import network.holographics.api.utils.scheduler.S;
+import network.holographics.api.utils.tick.Ticked;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This ticked object compares the time spent ticking holograms with the
+ * configured budget and the server TPS. Under pressure, it raises the
+ * degradation level, which stretches the update and animation intervals of
+ * the lowest priority holograms. Once the load drops, the level is lowered
+ * again step by step.
+ * <p>
+ * On level {@code n}, the lowest {@code n / (MAX_LEVEL + 1)} of all holograms
+ * by priority are ticked only every {@code 2^n} ticks. The ticked holograms
+ * are kept ordered by priority, so applying a level doesn't have to sort them.
+ *
+ * @see HologramManager#setGovernorBudget(double)
+ */
+class HologramGovernor extends Ticked {
+
+    static final int MAX_LEVEL = 3;
+    private static final long EVALUATION_INTERVAL = 20L;
+    /**
+     * Load, relative to the budget, below which the level is lowered again.
+     */
+    private static final double RECOVERY_FACTOR = 0.5d;
+
+    private final @NonNull NavigableSet<Rank> ranks;
+    private final @NonNull Map<Hologram, Rank> rankByHologram;
+    private final @NonNull AtomicLong tickNanos;
+    private final @NonNull AtomicLong serverTicks;
+    private volatile long budgetNanos;
+    private volatile double minTps;
+    private volatile int level;
+    private volatile double loadMillis;
+    private volatile double tps;
+    private int serverTickTaskId;
+    private long lastEvaluation;
+    private long lastServerTicks;
+    private long nextRankId;
+    private int appliedLevel;
+    private boolean ranksChanged;
+
+    HologramGovernor() {
+        super(EVALUATION_INTERVAL);
+        this.ranks = new TreeSet<>(Comparator.<Rank>comparingInt(rank -> rank.priority).thenComparingLong(rank -> rank.id));
+        this.rankByHologram = new IdentityHashMap<>();
+        this.tickNanos = new AtomicLong();
+        this.serverTicks = new AtomicLong();
+        this.budgetNanos = 0;
+        this.minTps = 18.0d;
+        this.level = 0;
+        this.tps = 20.0d;
+        this.serverTickTaskId = -1;
+    }
+
+    /**
+     * Start considering the given hologram for degradation.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void track(@NonNull Hologram hologram) {
+        if (!rankByHologram.containsKey(hologram)) {
+            Rank rank = new Rank(hologram, hologram.getPriority(), nextRankId++);
+            rankByHologram.put(hologram, rank);
+            ranks.add(rank);
+            ranksChanged = true;
+        }
+    }
+
+    /**
+     * Stop considering the given hologram for degradation and restore its intervals.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void untrack(@NonNull Hologram hologram) {
+        Rank rank = rankByHologram.remove(hologram);
+        if (rank != null) {
+            ranks.remove(rank);
+            ranksChanged = true;
+        }
+        hologram.setUpdateThrottle(1);
+    }
+
+    /**
+     * Move the given hologram to the position of its current priority.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void updatePriority(@NonNull Hologram hologram) {
+        Rank rank = rankByHologram.get(hologram);
+        if (rank != null && rank.priority != hologram.getPriority()) {
+            untrack(hologram);
+            track(hologram);
+        }
+    }
+
+    /**
+     * Record time spent ticking holograms.
+     *
+     * @param nanos The time in nanoseconds.
+     */
+    void record(long nanos) {
+        if (budgetNanos > 0) {
+            tickNanos.addAndGet(nanos);
+        }
+    }
+
+    synchronized void start() {
+        if (serverTickTaskId == -1) {
+            serverTickTaskId = S.syncTask(serverTicks::incrementAndGet, 1L).getTaskId();
+        }
+        lastEvaluation = S.getClock().nanoTime();
+        lastServerTicks = serverTicks.get();
+        tickNanos.set(0);
+        register();
+    }
+
+    synchronized void stop() {
+        unregister();
+        if (serverTickTaskId != -1) {
+            S.stopTask(serverTickTaskId);
+            serverTickTaskId = -1;
+        }
+        level = 0;
+        applyLevel();
+    }
+
+    @Override
+    public synchronized void tick() {
+        Clock clock = S.getClock();
+        long now = clock.nanoTime();
+        long elapsed = now - lastEvaluation;
+        long ticks = serverTicks.get();
+        if (elapsed > 0) {
+            tps = Math.min(20.0d, (ticks - lastServerTicks) * 1_000_000_000.0d / elapsed);
+        }
+        loadMillis = tickNanos.getAndSet(0) / (double) EVALUATION_INTERVAL / 1_000_000.0d;
+        lastEvaluation = now;
+        lastServerTicks = ticks;
+
+        double budgetMillis = budgetNanos / 1_000_000.0d;
+        if (loadMillis > budgetMillis || tps < minTps) {
+            level = Math.min(MAX_LEVEL, level + 1);
+        } else if (level > 0 && loadMillis < budgetMillis * RECOVERY_FACTOR && tps >= minTps) {
+            level--;
+        }
+        applyLevel();
+    }
+
+    /**
+     * Throttle the lowest priority holograms according to the current level.
+     * Nothing is done, unless the level or the tracked holograms changed.
+     */
+    private synchronized void applyLevel() {
+        int currentLevel = level;
+        if (currentLevel == appliedLevel && !ranksChanged) {
+            return;
+        }
+        int degraded = ranks.size() * currentLevel / (MAX_LEVEL + 1);
+        int index = 0;
+        for (Rank rank : ranks) {
+            rank.hologram.setUpdateThrottle(index++ < degraded ? 1 << currentLevel : 1);
+        }
+        appliedLevel = currentLevel;
+        ranksChanged = false;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    double getLoadMillis() {
+        return loadMillis;
+    }
+
+    double getTps() {
+        return tps;
+    }
+
+    long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    void setBudgetNanos(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    double getMinTps() {
+        return minTps;
+    }
+
+    void setMinTps(double minTps) {
+        this.minTps = minTps;
+    }
+
+    /**
+     * Position of a hologram in the priority order. The priority is captured,
+     * so the order stays consistent, until the hologram is re-ranked.
+     */
+    private static final class Rank {
+
+        private final Hologram hologram;
+        private final int priority;
+        private final long id;
+
+        private Rank(Hologram hologram, int priority, long id) {
+            this.hologram = hologram;
+            this.priority = priority;
+            this.id = id;
+        }
+    }
+
+}
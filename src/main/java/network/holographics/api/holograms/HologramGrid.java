@@ -0,0 +1,341 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.utils.objects.BoundingBox;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of holograms. Holograms are partitioned per world into
+ * {@link WorldHologramSet}s and bucketed into chunk sized cells, so that range
+ * queries only have to look at the cells overlapping the queried area instead
+ * of at every cached hologram.
+ * <p>
+ * The grid is kept up to date by {@link Hologram} itself, when it's created,
+ * moved or destroyed.
+ *
+ * @see HologramManager#getHologramsNear(Location, double)
+ * @see HologramManager#getHologramsIn(World, BoundingBox)
+ */
+public class HologramGrid {
+
+    /**
+     * Size of a single cell in blocks, expressed as a bit shift. (16 blocks, one chunk)
+     */
+    public static final int CELL_SHIFT = 4;
+
+    private final @NonNull Map<UUID, WorldHologramSet> worlds;
+    private final @NonNull Map<Hologram, Cell> hologramCells;
+    /**
+     * Ranges of the indexed holograms, as they were when the holograms were
+     * last indexed, and the number of holograms per range value. The counts
+     * let the maximums shrink again, when holograms are removed or changed.
+     */
+    private final @NonNull Map<Hologram, Extent> hologramExtents;
+    private final @NonNull TreeMap<Integer, Integer> displayRangeCounts;
+    private final @NonNull TreeMap<Integer, Integer> lookAheadCounts;
+    private volatile int maxDisplayRange;
+    private volatile int maxLookAheadTicks;
+
+    public HologramGrid() {
+        this.worlds = new ConcurrentHashMap<>();
+        this.hologramCells = new ConcurrentHashMap<>();
+        this.hologramExtents = new HashMap<>();
+        this.displayRangeCounts = new TreeMap<>();
+        this.lookAheadCounts = new TreeMap<>();
+        this.maxDisplayRange = 0;
+        this.maxLookAheadTicks = 0;
+    }
+
+    /*
+     *	Index Methods
+     */
+
+    /**
+     * Add the given hologram to this grid or move it to its current cell,
+     * if it's already indexed.
+     *
+     * @param hologram The hologram.
+     */
+    public synchronized void update(@NonNull Hologram hologram) {
+        Cell cell = Cell.of(hologram.getLocation());
+        Cell previous = cell == null ? hologramCells.remove(hologram) : hologramCells.put(hologram, cell);
+        if (previous != null && !previous.equals(cell)) {
+            removeFromCell(previous, hologram);
+        }
+        removeExtent(hologram);
+        if (cell != null) {
+            worlds.computeIfAbsent(cell.world, WorldHologramSet::new).add(hologram, cell.key);
+            addExtent(hologram, new Extent(hologram.getExitRange(), hologram.getLookAheadTicks()));
+        }
+        updateMaximums();
+    }
+
+    /**
+     * Remove the given hologram from this grid.
+     *
+     * @param hologram The hologram.
+     */
+    public synchronized void remove(@NonNull Hologram hologram) {
+        Cell previous = hologramCells.remove(hologram);
+        if (previous != null) {
+            removeFromCell(previous, hologram);
+        }
+        removeExtent(hologram);
+        updateMaximums();
+    }
+
+    /**
+     * Remove all holograms from this grid.
+     */
+    public synchronized void clear() {
+        worlds.clear();
+        hologramCells.clear();
+        hologramExtents.clear();
+        displayRangeCounts.clear();
+        lookAheadCounts.clear();
+        maxDisplayRange = 0;
+        maxLookAheadTicks = 0;
+    }
+
+    /**
+     * Check whether the given hologram is indexed in this grid.
+     *
+     * @param hologram The hologram.
+     * @return True if the hologram is indexed, false otherwise.
+     */
+    public boolean contains(@NonNull Hologram hologram) {
+        return hologramCells.containsKey(hologram);
+    }
+
+    /**
+     * Get the largest display range of all holograms that are indexed
+     * in this grid, including their exit ranges. This is the radius, that needs
+     * to be queried to find all holograms, that could be visible from a position.
+     *
+     * @return The largest display range.
+     */
+    public int getMaxDisplayRange() {
+        return maxDisplayRange;
+    }
+
+    /**
+     * Get the largest look-ahead of all holograms that are indexed in this grid.
+     *
+     * @return The largest look-ahead in ticks.
+     * @see network.holographics.api.holograms.objects.UpdatingHologramObject#lookAheadTicks
+     */
+    public int getMaxLookAheadTicks() {
+        return maxLookAheadTicks;
+    }
+
+    private void addExtent(@NonNull Hologram hologram, @NonNull Extent extent) {
+        hologramExtents.put(hologram, extent);
+        displayRangeCounts.merge(extent.displayRange, 1, Integer::sum);
+        lookAheadCounts.merge(extent.lookAheadTicks, 1, Integer::sum);
+    }
+
+    private void removeExtent(@NonNull Hologram hologram) {
+        Extent extent = hologramExtents.remove(hologram);
+        if (extent != null) {
+            decrement(displayRangeCounts, extent.displayRange);
+            decrement(lookAheadCounts, extent.lookAheadTicks);
+        }
+    }
+
+    private static void decrement(@NonNull Map<Integer, Integer> counts, int value) {
+        counts.computeIfPresent(value, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void updateMaximums() {
+        maxDisplayRange = displayRangeCounts.isEmpty() ? 0 : Math.max(0, displayRangeCounts.lastKey());
+        maxLookAheadTicks = lookAheadCounts.isEmpty() ? 0 : Math.max(0, lookAheadCounts.lastKey());
+    }
+
+    private void removeFromCell(@NonNull Cell cell, @NonNull Hologram hologram) {
+        WorldHologramSet set = worlds.get(cell.world);
+        if (set == null) {
+            return;
+        }
+        set.remove(hologram, cell.key);
+        if (set.isEmpty()) {
+            worlds.remove(cell.world);
+        }
+    }
+
+    /*
+     *	Query Methods
+     */
+
+    /**
+     * Get the holograms in the world with the given UID.
+     *
+     * @param world UID of the world.
+     * @return The holograms or null if there are no holograms in the world.
+     */
+    public WorldHologramSet getWorld(@NonNull UUID world) {
+        return worlds.get(world);
+    }
+
+    /**
+     * Get the holograms of all worlds, that contain at least one hologram.
+     *
+     * @return Unmodifiable view of the per-world sets.
+     */
+    @NonNull
+    public Collection<WorldHologramSet> getWorlds() {
+        return Collections.unmodifiableCollection(worlds.values());
+    }
+
+    /**
+     * Get all holograms in the cells overlapping the square with the given
+     * center and radius. The result is not filtered by the exact distance,
+     * so it may contain holograms slightly outside the radius.
+     *
+     * @param world  The world.
+     * @param x      X coordinate of the center.
+     * @param z      Z coordinate of the center.
+     * @param radius The radius.
+     * @return List of candidate holograms.
+     */
+    @NonNull
+    public List<Hologram> getCandidates(@NonNull World world, double x, double z, double radius) {
+        return getCandidates(world.getUID(), x, z, radius);
+    }
+
+    /**
+     * Get all holograms in the cells overlapping the square with the given
+     * center and radius. The result is not filtered by the exact distance,
+     * so it may contain holograms slightly outside the radius.
+     *
+     * @param world  UID of the world.
+     * @param x      X coordinate of the center.
+     * @param z      Z coordinate of the center.
+     * @param radius The radius.
+     * @return List of candidate holograms.
+     */
+    @NonNull
+    public List<Hologram> getCandidates(@NonNull UUID world, double x, double z, double radius) {
+        WorldHologramSet set = worlds.get(world);
+        return set == null ? Collections.emptyList() : set.getCandidates(x, z, radius);
+    }
+
+    /**
+     * Get all holograms within the given radius around the given location.
+     *
+     * @param location The location.
+     * @param radius   The radius.
+     * @return List of all holograms in range.
+     */
+    @NonNull
+    public List<Hologram> getNear(@NonNull Location location, double radius) {
+        World world = location.getWorld();
+        if (world == null) {
+            return Collections.emptyList();
+        }
+        double radiusSquared = radius * radius;
+        List<Hologram> result = new ArrayList<>();
+        for (Hologram hologram : getCandidates(world, location.getX(), location.getZ(), radius)) {
+            Location hologramLocation = hologram.getLocation();
+            double dx = hologramLocation.getX() - location.getX();
+            double dy = hologramLocation.getY() - location.getY();
+            double dz = hologramLocation.getZ() - location.getZ();
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                result.add(hologram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get all holograms inside the given bounding box in the given world.
+     *
+     * @param world The world.
+     * @param box   The bounding box.
+     * @return List of all holograms inside the bounding box.
+     */
+    @NonNull
+    public List<Hologram> getIn(@NonNull World world, @NonNull BoundingBox box) {
+        double radius = Math.max(box.getWidthX(), box.getWidthZ()) / 2;
+        List<Hologram> result = new ArrayList<>();
+        for (Hologram hologram : getCandidates(world, box.getCenterX(), box.getCenterZ(), radius)) {
+            Location hologramLocation = hologram.getLocation();
+            if (box.contains(hologramLocation.getX(), hologramLocation.getY(), hologramLocation.getZ())) {
+                result.add(hologram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the cell coordinate of the given block coordinate.
+     *
+     * @param coordinate The X or Z coordinate.
+     * @return The cell coordinate.
+     */
+    public static int toCell(double coordinate) {
+        return ((int) Math.floor(coordinate)) >> CELL_SHIFT;
+    }
+
+    /**
+     * Ranges of a single hologram, that the maximums of the grid are based on.
+     */
+    private static final class Extent {
+
+        private final int displayRange;
+        private final int lookAheadTicks;
+
+        private Extent(int displayRange, int lookAheadTicks) {
+            this.displayRange = displayRange;
+            this.lookAheadTicks = lookAheadTicks;
+        }
+    }
+
+    /**
+     * A single cell of the grid, identified by world and packed cell coordinates.
+     */
+    private static final class Cell {
+
+        private final UUID world;
+        private final long key;
+
+        private Cell(UUID world, long key) {
+            this.world = world;
+            this.key = key;
+        }
+
+        private static Cell of(@NonNull Location location) {
+            /*
+             * Some forks (e.g. Pufferfish) throw an exception, when we try to get
+             * the world of a location, which is not loaded. Such holograms can't
+             * be seen by anyone, so we just don't index them.
+             */
+            try {
+                World world = location.getWorld();
+                if (world == null) {
+                    return null;
+                }
+                return new Cell(world.getUID(), WorldHologramSet.key(toCell(location.getX()), toCell(location.getZ())));
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cell)) return false;
+            Cell cell = (Cell) o;
+            return key == cell.key && world.equals(cell.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * world.hashCode() + Long.hashCode(key);
+        }
+    }
+
+}
@@ -10,6 +10,7 @@ import network.holographics.api.holograms.enums.EnumFlag;
 import network.holographics.api.holograms.enums.HologramLineType;
 import network.holographics.api.holograms.objects.HologramObject;
 import network.holographics.api.nms.NMS;
+import network.holographics.api.player.ViewerState;
 import network.holographics.api.utils.Common;
 import network.holographics.api.utils.entity.HologramEntity;
 import network.holographics.api.utils.entity.HolographicsEntityType;
@@ -266,6 +267,11 @@ public class HologramLine extends HologramObject {
 
     @NotNull
     private String getText(@NonNull Player player, boolean update) {
+        return getText(player, update, true);
+    }
+
+    @NotNull
+    private String getText(@NonNull Player player, boolean update, boolean animate) {
         if (type != HologramLineType.TEXT) {
             return "";
         }
@@ -286,7 +292,11 @@ public class HologramLine extends HologramObject {
 
         // Parse animations
         if (containsAnimations && !hasFlag(EnumFlag.DISABLE_ANIMATIONS)) {
-            string = HOLOGRAPHICS_INTERNAL.getAnimationManager().parseTextAnimations(string);
+            if (animate) {
+                string = HOLOGRAPHICS_INTERNAL.getAnimationManager().parseTextAnimations(string);
+            } else {
+                string = HOLOGRAPHICS_INTERNAL.getAnimationManager().stripTextAnimations(string);
+            }
         }
 
         return Common.colorize(string);
@@ -329,7 +339,7 @@ public class HologramLine extends HologramObject {
      * @return True if the player has the permission to see this line, false otherwise.
      */
     public boolean hasPermission(@NonNull Player player) {
-        return permission == null || permission.isEmpty() || player.hasPermission(permission);
+        return permission == null || permission.isEmpty() || HOLOGRAPHICS_INTERNAL.getPermissionCache().hasPermission(player, permission);
     }
 
     /**
@@ -399,6 +409,7 @@ public class HologramLine extends HologramObject {
                         break;
                 }
                 viewers.add(player.getUniqueId());
+                HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player).addVisibleLine(this);
             }
         }
     }
@@ -409,6 +420,16 @@ public class HologramLine extends HologramObject {
      * @param players Given players.
      */
     public void update(Player... players) {
+        update(true, players);
+    }
+
+    /**
+     * Update this line for given players.
+     *
+     * @param animate False to render the text without animations.
+     * @param players Given players.
+     */
+    public void update(boolean animate, Player... players) {
         if (isDisabled() || hasFlag(EnumFlag.DISABLE_UPDATING)) {
             return;
         }
@@ -425,7 +446,7 @@ public class HologramLine extends HologramObject {
             if (type == HologramLineType.TEXT) {
                 UUID uuid = player.getUniqueId();
                 String lastText = lastTextMap.get(uuid);
-                String updatedText = getText(player, true);
+                String updatedText = getText(player, true, animate);
                 if (!updatedText.equals(lastText)) {
                     lastTextMap.put(uuid, updatedText);
                     nms.updateFakeEntityCustomName(player, updatedText, entityIds[0]);
@@ -492,6 +513,24 @@ public class HologramLine extends HologramObject {
             if (isVisible(player)) {
                 NMS.getInstance().hideFakeEntities(player, entityIds[0], entityIds[1]);
                 viewers.remove(player.getUniqueId());
+                ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player.getUniqueId());
+                if (state != null) {
+                    state.removeVisibleLine(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget that the given player can see this line, without sending any packets.
+     *
+     * @param player The player.
+     */
+    public void forget(@NonNull Player player) {
+        if (viewers.remove(player.getUniqueId())) {
+            ViewerState state = HOLOGRAPHICS_INTERNAL.getHologramManager().getViewerState(player.getUniqueId());
+            if (state != null) {
+                state.removeVisibleLine(this);
             }
         }
     }
@@ -3,18 +3,32 @@ package network.holographics.api.holograms;
 import network.holographics.api.HolographicsInternal;
 import network.holographics.api.HolographicsInternalAPI;
 import network.holographics.api.actions.ClickType;
+import network.holographics.api.holograms.enums.OcclusionMode;
+import network.holographics.api.holograms.enums.VisibilityPriority;
+import network.holographics.api.player.PlayerSnapshot;
+import network.holographics.api.player.ViewerState;
+import network.holographics.api.utils.DExecutor;
+import network.holographics.api.utils.objects.BoundingBox;
 import network.holographics.api.utils.scheduler.S;
 import network.holographics.api.utils.tick.Ticked;
 import lombok.NonNull;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is a manager that handles all holograms. It is responsible for
@@ -23,9 +37,45 @@ import java.util.concurrent.ConcurrentHashMap;
 public class HologramManager extends Ticked {
 
     private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+    private static final double VIEW_CULLING_MIN_DISTANCE_SQUARED = 9.0d;
+    /**
+     * Minimum amount of elements in a single partition of the visibility sweep.
+     * Smaller sweeps aren't worth spreading over multiple threads.
+     */
+    private static final int MIN_PARTITION_SIZE = 32;
+    private static final long OCCLUSION_INTERVAL = 10L;
+    /**
+     * Maximum distance between the position a diff was prefetched for and the
+     * position of the player, at which the prefetched diff is still applied.
+     */
+    private static final double PREFETCH_TOLERANCE_SQUARED = 4.0d;
     private final @NonNull Map<String, Hologram> hologramMap;
     private final @NonNull Map<UUID, Long> clickCooldowns;
     private final @NonNull Set<HologramLine> temporaryLines;
+    private final @NonNull HologramGrid grid;
+    private final @NonNull HologramShards shards;
+    private final @NonNull HologramGovernor governor;
+    private final @NonNull Map<UUID, ViewerState> viewerStates;
+    private final @NonNull AtomicLong visibilityVersion;
+    /**
+     * Visibility versions of the individual worlds. The entries are never removed,
+     * so a version can't start over and match an old evaluation again.
+     */
+    private final @NonNull Map<UUID, AtomicLong> worldVersions;
+    private final @NonNull VisibilityTracker visibilityTracker;
+    private final @NonNull VisibilityEvaluator evaluator;
+    private volatile boolean incrementalVisibility;
+    private volatile double movementThreshold;
+    private volatile boolean viewCulling;
+    private volatile double viewAngle;
+    private volatile double viewCosine;
+    private volatile int maxVisibleHolograms;
+    private volatile @NonNull VisibilityPriority visibilityPriority;
+    private volatile @NonNull OcclusionMode occlusionMode;
+    private volatile boolean chunkGating;
+    private volatile int spawnRate;
+    private final @NonNull SpawnRamp spawnRamp;
+    private final @NonNull OcclusionCuller occlusionCuller;
 
     /**
      * Map of holograms to load, when their respective world loads.
@@ -47,6 +97,25 @@ public class HologramManager extends Ticked {
         this.clickCooldowns = new ConcurrentHashMap<>();
         this.temporaryLines = ConcurrentHashMap.newKeySet();
         this.toLoad = new ConcurrentHashMap<>();
+        this.grid = new HologramGrid();
+        this.governor = new HologramGovernor();
+        this.shards = new HologramShards(governor);
+        this.viewerStates = new ConcurrentHashMap<>();
+        this.visibilityVersion = new AtomicLong();
+        this.worldVersions = new ConcurrentHashMap<>();
+        this.visibilityTracker = new VisibilityTracker(this);
+        this.evaluator = new VisibilityEvaluator(this);
+        this.incrementalVisibility = false;
+        this.movementThreshold = 1.0d;
+        this.viewCulling = false;
+        this.setViewAngle(140.0d);
+        this.maxVisibleHolograms = 0;
+        this.visibilityPriority = VisibilityPriority.NEAREST;
+        this.occlusionMode = OcclusionMode.DISABLED;
+        this.chunkGating = false;
+        this.spawnRate = 0;
+        this.spawnRamp = new SpawnRamp(this);
+        this.occlusionCuller = new OcclusionCuller(this, OCCLUSION_INTERVAL);
         this.register();
 
         S.async(this::reload); // Reload when worlds are ready
@@ -54,41 +123,663 @@ public class HologramManager extends Ticked {
 
     @Override
     public synchronized void tick() {
-        for (Hologram hologram : Hologram.getCachedHolograms()) {
+        // In incremental mode, the visibility is updated by the tracker.
+        if (incrementalVisibility) {
+            return;
+        }
+
+        DExecutor.forEach(new ArrayList<>(Bukkit.getOnlinePlayers()), MIN_PARTITION_SIZE, this::sweep);
+    }
+
+    /**
+     * Hide the holograms, that the given player shouldn't see anymore, and show
+     * the holograms in range of the player, that they can't see yet.
+     *
+     * @param player The player.
+     */
+    private void sweep(@NonNull Player player) {
+        PlayerSnapshot snapshot = getSnapshot(player);
+        if (snapshot == null || !player.isOnline()) {
+            return;
+        }
+        ViewerState state = sampleMovement(player, snapshot);
+        if (maxVisibleHolograms > 0) {
+            // The selection has to see all candidates at once to evict the least important ones.
+            evaluator.apply(computeVisibilityDiff(player, snapshot, state.getVisibleHolograms()), getVisibilityVersion(snapshot.getWorldId()));
+            return;
+        }
+        // Re-check current holograms, so holograms out of range get hidden.
+        for (Hologram hologram : new ArrayList<>(state.getVisibleHolograms())) {
             if (hologram.isEnabled()) {
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    updateVisibility(player, hologram);
-                }
+                updateVisibility(player, hologram);
+            }
+        }
+        // Only check holograms in the cells around each player for showing.
+        for (Hologram hologram : getCandidates(snapshot)) {
+            if (hologram.isEnabled() && !hologram.isVisible(player)) {
+                updateVisibility(player, hologram);
             }
         }
     }
 
+    /**
+     * Update the visibility of all holograms for the given player.
+     *
+     * @param player The player.
+     */
     public void updateVisibility(@NonNull Player player) {
-        for (Hologram hologram : Hologram.getCachedHolograms()) {
-            updateVisibility(player, hologram);
+        PlayerSnapshot snapshot = getSnapshot(player);
+        ViewerState state = getViewerState(player);
+        if (snapshot == null) {
+            for (Hologram hologram : new ArrayList<>(state.getVisibleHolograms())) {
+                updateVisibility(player, hologram);
+            }
+            return;
         }
+        evaluator.apply(computeVisibilityDiff(player, snapshot, state.getVisibleHolograms()), getVisibilityVersion(snapshot.getWorldId()));
     }
 
-    public void updateVisibility(@NonNull Player player, @NonNull Hologram hologram) {
-        if (hologram.isDisabled()) {
+    /**
+     * Compute the visibility of the given player at the given destination in
+     * advance, so it can be applied right after the player arrives there.
+     *
+     * @param player      The player.
+     * @param destination The position the player is about to be at.
+     * @see #applyPrefetchedVisibility(Player)
+     */
+    public void prefetchVisibility(@NonNull Player player, @NonNull PlayerSnapshot destination) {
+        ViewerState state = getViewerState(player);
+        state.setPrefetchedDiff(computeVisibilityDiff(player, destination, state.getVisibleHolograms()));
+    }
+
+    /**
+     * Apply the visibility prefetched by {@link #prefetchVisibility(Player, PlayerSnapshot)}.
+     * If there is none, or the player isn't at the prefetched position, the
+     * visibility is updated as usual. The prefetched diff is discarded either way,
+     * so a stale diff is never applied later.
+     *
+     * @param player The player.
+     */
+    public void applyPrefetchedVisibility(@NonNull Player player) {
+        VisibilityDiff diff = getViewerState(player).takePrefetchedDiff();
+        PlayerSnapshot snapshot = getSnapshot(player);
+        if (diff == null || snapshot == null || !isAt(snapshot, diff.getSnapshot())) {
+            updateVisibility(player);
             return;
         }
+        // Holograms could have changed since the prefetch, so the next incremental update re-checks the player.
+        evaluator.apply(diff, -1L);
+    }
 
-        // Determine the player's display state of this hologram.
-        if (hologram.isHideState(player) || (!hologram.isDefaultVisibleState() && !hologram.isShowState(player))) {
-            if (hologram.isVisible(player)) {
-                hologram.hide(player);
-            }
+    private static boolean isAt(@NonNull PlayerSnapshot snapshot, @NonNull PlayerSnapshot expected) {
+        return snapshot.isIn(expected.getWorldId())
+                && snapshot.distanceSquared(expected.getX(), expected.getY(), expected.getZ()) <= PREFETCH_TOLERANCE_SQUARED;
+    }
+
+    /**
+     * Update the visibility of all holograms for the given player, but only if
+     * the player moved further than the movement threshold, crossed a cell
+     * boundary or the holograms changed since their last evaluation.
+     *
+     * @param player The player.
+     * @see #setIncrementalVisibility(boolean)
+     */
+    public void updateVisibilityIncremental(@NonNull Player player) {
+        PlayerSnapshot snapshot = getSnapshot(player);
+        if (snapshot == null || !player.isOnline()) {
             return;
         }
+        long version = getVisibilityVersion(snapshot.getWorldId());
+        ViewerState state = sampleMovement(player, snapshot);
+        if (!state.needsUpdate(snapshot.getWorldId(), snapshot.getX(), snapshot.getY(), snapshot.getZ(), movementThreshold, version)) {
+            return;
+        }
+        evaluator.apply(computeVisibilityDiff(player, snapshot, state.getVisibleHolograms()), version);
+    }
 
-        if (!hologram.isVisible(player) && hologram.canShow(player) && hologram.isInDisplayRange(player)) {
-            hologram.show(player, hologram.getPlayerPage(player));
-        } else if (hologram.isVisible(player) && !(hologram.canShow(player) && hologram.isInDisplayRange(player))) {
-            hologram.hide(player);
+    /**
+     * Compute which holograms entered and which left the view of the given player.
+     * If more holograms are in range than the player is allowed to see, only the
+     * most important ones are selected and the others are evicted.
+     *
+     * @param player   The player.
+     * @param snapshot The position to evaluate the player at.
+     * @param previous Holograms, that could currently be visible to the player.
+     * @return The computed diff.
+     */
+    @NonNull
+    public VisibilityDiff computeVisibilityDiff(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Collection<Hologram> previous) {
+        return evaluator.computeDiff(player, snapshot, previous);
+    }
+
+    /**
+     * Check whether the given hologram should currently be visible to the given player.
+     *
+     * @param player   The player.
+     * @param hologram The hologram.
+     * @return True if the hologram should be visible, false otherwise.
+     */
+    public boolean shouldBeVisible(@NonNull Player player, @NonNull Hologram hologram) {
+        PlayerSnapshot snapshot = getSnapshot(player);
+        return snapshot != null && shouldBeVisible(player, snapshot, hologram);
+    }
+
+    /**
+     * Check whether the given hologram should be visible to the given player,
+     * if they were at the position of the given snapshot.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     * @return True if the hologram should be visible, false otherwise.
+     */
+    public boolean shouldBeVisible(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        return evaluator.shouldBeVisible(player, snapshot, hologram);
+    }
+
+    /**
+     * Check whether the given hologram was hidden behind solid blocks for the
+     * given player, when their line of sight was last checked.
+     *
+     * @param player   The player.
+     * @param hologram The hologram.
+     * @return True if the hologram is occluded, false otherwise.
+     * @see #setOcclusionMode(OcclusionMode)
+     */
+    public boolean isOccluded(@NonNull Player player, @NonNull Hologram hologram) {
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        return state != null && state.isOccluded(hologram);
+    }
+
+    /**
+     * Show or hide the given hologram for the given player, depending on whether
+     * it should be visible. The decision and the action happen atomically with
+     * respect to other visibility operations on the hologram.
+     *
+     * @param player   The player.
+     * @param hologram The hologram.
+     */
+    public void updateVisibility(@NonNull Player player, @NonNull Hologram hologram) {
+        evaluator.update(player, hologram);
+    }
+
+    /**
+     * Spawn up to {@link #getSpawnRate()} holograms from the spawn queue of the
+     * given player. Holograms, that shouldn't be visible anymore, are skipped.
+     *
+     * @param player The player.
+     * @param state  The viewer state of the player.
+     */
+    void drainSpawnQueue(@NonNull Player player, @NonNull ViewerState state) {
+        evaluator.drainSpawnQueue(player, state);
+    }
+
+    /**
+     * Hide the given hologram for the given player. If its chunk isn't tracked
+     * by the player anymore, the client has already removed the entities, so
+     * the hologram is only forgotten without sending any packets.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     */
+    void despawn(@NonNull Player player, PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        evaluator.despawn(player, snapshot, hologram);
+    }
+
+    /**
+     * Check whether the chunk of the given hologram is tracked by the given player,
+     * if chunk gating is enabled. Chunks of holograms, that the player can already
+     * see, are considered tracked up to one chunk past the view distance, so the
+     * hologram doesn't get despawned right before the client unloads the chunk.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     * @return True if the chunk is tracked or chunk gating is disabled, false otherwise.
+     * @see #setChunkGating(boolean)
+     */
+    public boolean isInTrackedChunk(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        return evaluator.isInTrackedChunk(player, snapshot, hologram);
+    }
+
+    /**
+     * Mark the visibility of all players as outdated. Players are re-evaluated
+     * by the incremental visibility mode even if they haven't moved.
+     * <p>
+     * This is called automatically, when the visibility settings of this
+     * manager change.
+     *
+     * @see #invalidateVisibility(UUID)
+     */
+    public void invalidateVisibility() {
+        visibilityVersion.incrementAndGet();
+    }
+
+    /**
+     * Mark the visibility of all players in the world with the given UID as
+     * outdated. Players in other worlds aren't re-evaluated.
+     * <p>
+     * This is called automatically, when holograms are created, moved or
+     * their visibility settings change.
+     *
+     * @param world UID of the world. Nothing happens if it's null.
+     */
+    public void invalidateVisibility(@Nullable UUID world) {
+        if (world != null) {
+            worldVersions.computeIfAbsent(world, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Mark the visibility of the given player as outdated, e.g. after their
+     * permissions changed.
+     *
+     * @param player The player.
+     */
+    public void invalidateVisibility(@NonNull Player player) {
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        if (state != null) {
+            state.invalidate();
+        }
+    }
+
+    /**
+     * Get the visibility version of the world with the given UID. It changes
+     * whenever the global or the world version is incremented, as both only
+     * ever grow.
+     */
+    private long getVisibilityVersion(@NonNull UUID world) {
+        AtomicLong worldVersion = worldVersions.get(world);
+        return visibilityVersion.get() + (worldVersion == null ? 0L : worldVersion.get());
+    }
+
+    /**
+     * Get all viewer states of online players.
+     *
+     * @return Unmodifiable view of the viewer states.
+     */
+    @NonNull
+    Collection<ViewerState> getViewerStates() {
+        return Collections.unmodifiableCollection(viewerStates.values());
+    }
+
+    /**
+     * Get the viewer state of the given player, creating it if needed. Players,
+     * that aren't online anymore, get a detached state, so visibility work racing
+     * with {@link #onQuit(Player)} can't bring back the state of a player, that quit.
+     *
+     * @param player The player.
+     * @return The viewer state.
+     */
+    @NonNull
+    public ViewerState getViewerState(@NonNull Player player) {
+        UUID uniqueId = player.getUniqueId();
+        ViewerState state = viewerStates.get(uniqueId);
+        if (state != null) {
+            return state;
+        }
+        if (!player.isOnline()) {
+            return new ViewerState(uniqueId);
+        }
+        state = viewerStates.computeIfAbsent(uniqueId, ViewerState::new);
+        if (!player.isOnline()) {
+            // The player quit in the meantime, so onQuit might have missed this state.
+            viewerStates.remove(uniqueId, state);
+        }
+        return state;
+    }
+
+    /**
+     * Get the viewer state of the player with the given UUID, if they have one.
+     *
+     * @param uniqueId UUID of the player.
+     * @return The viewer state or null if the player doesn't have one.
+     */
+    public ViewerState getViewerState(@NonNull UUID uniqueId) {
+        return viewerStates.get(uniqueId);
+    }
+
+    /**
+     * Check whether the incremental visibility mode is enabled.
+     *
+     * @return True if the incremental mode is enabled, false otherwise.
+     * @see #setIncrementalVisibility(boolean)
+     */
+    public boolean isIncrementalVisibility() {
+        return incrementalVisibility;
+    }
+
+    /**
+     * Enable or disable the incremental visibility mode.
+     * <p>
+     * In this mode, visibility isn't re-evaluated by the periodic sweep. Instead,
+     * every tick, only players that moved further than the movement threshold,
+     * crossed a cell boundary or whose holograms changed are re-evaluated, and
+     * the holograms, that entered or left their view, are shown or hidden.
+     *
+     * @param incrementalVisibility True to enable the incremental mode, false to disable it.
+     */
+    public void setIncrementalVisibility(boolean incrementalVisibility) {
+        this.incrementalVisibility = incrementalVisibility;
+        if (incrementalVisibility) {
+            invalidateVisibility();
+            visibilityTracker.register();
+        } else {
+            visibilityTracker.unregister();
+        }
+    }
+
+    public double getMovementThreshold() {
+        return movementThreshold;
+    }
+
+    /**
+     * Set the distance in blocks, that a player has to move before their
+     * visibility is re-evaluated in the incremental mode.
+     *
+     * @param movementThreshold The threshold in blocks.
+     */
+    public void setMovementThreshold(double movementThreshold) {
+        this.movementThreshold = movementThreshold;
+    }
+
+    public int getMaxVisibleHolograms() {
+        return maxVisibleHolograms;
+    }
+
+    /**
+     * Set the maximum number of holograms, that can be visible to a single player
+     * at once. When more holograms are in range, the most important ones are
+     * selected according to the {@link #getVisibilityPriority() visibility priority}.
+     *
+     * @param maxVisibleHolograms The maximum. Zero or less means unlimited.
+     */
+    public void setMaxVisibleHolograms(int maxVisibleHolograms) {
+        this.maxVisibleHolograms = maxVisibleHolograms;
+        invalidateVisibility();
+    }
+
+    @NonNull
+    public VisibilityPriority getVisibilityPriority() {
+        return visibilityPriority;
+    }
+
+    /**
+     * Set how holograms are selected, when more holograms are in range of a player
+     * than the {@link #getMaxVisibleHolograms() maximum}.
+     *
+     * @param visibilityPriority The priority.
+     */
+    public void setVisibilityPriority(@NonNull VisibilityPriority visibilityPriority) {
+        this.visibilityPriority = visibilityPriority;
+        invalidateVisibility();
+    }
+
+    /**
+     * Get the number of holograms currently visible to the given player.
+     *
+     * @param player The player.
+     * @return The number of visible holograms.
+     */
+    public int getVisibleCount(@NonNull Player player) {
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        return state == null ? 0 : state.getVisibleCount();
+    }
+
+    /**
+     * Get the number of holograms currently visible to each online player.
+     *
+     * @return Map of player UUIDs to the number of visible holograms.
+     */
+    @NonNull
+    public Map<UUID, Integer> getVisibleCounts() {
+        Map<UUID, Integer> counts = new HashMap<>();
+        viewerStates.forEach((uniqueId, state) -> counts.put(uniqueId, state.getVisibleCount()));
+        return counts;
+    }
+
+    public int getSpawnRate() {
+        return spawnRate;
+    }
+
+    /**
+     * Set how many holograms can be spawned for a single player per tick, when
+     * a lot of holograms enter their view at once, e.g. on join or teleport.
+     * The holograms are spawned nearest first, so the nearest ones show right
+     * away and the rest ramp in over the next ticks.
+     *
+     * @param spawnRate Holograms per player per tick. Zero or less spawns all at once.
+     */
+    public void setSpawnRate(int spawnRate) {
+        this.spawnRate = spawnRate;
+        if (spawnRate > 0) {
+            spawnRamp.register();
+        } else {
+            spawnRamp.unregister();
+            viewerStates.values().forEach(state -> state.setSpawnQueue(Collections.emptyList()));
+            invalidateVisibility();
         }
     }
 
+    public double getGovernorBudget() {
+        return governor.getBudgetNanos() / 1_000_000.0d;
+    }
+
+    /**
+     * Set the time, that may be spent ticking holograms per tick. When it's
+     * exceeded or the server TPS drops below the {@link #setGovernorMinTps(double)
+     * minimum}, the update and animation intervals of the lowest priority
+     * holograms are stretched, until the load drops again.
+     *
+     * @param millis The budget in milliseconds per tick. Zero or less disables the governor.
+     * @see #getDegradationLevel()
+     */
+    public void setGovernorBudget(double millis) {
+        governor.setBudgetNanos(millis > 0 ? (long) (millis * 1_000_000.0d) : 0);
+        if (millis > 0) {
+            governor.start();
+        } else {
+            governor.stop();
+        }
+    }
+
+    public double getGovernorMinTps() {
+        return governor.getMinTps();
+    }
+
+    /**
+     * Set the server TPS, below which holograms are degraded, even if the
+     * governor budget isn't exceeded.
+     *
+     * @param minTps The minimum TPS.
+     */
+    public void setGovernorMinTps(double minTps) {
+        governor.setMinTps(minTps);
+    }
+
+    /**
+     * Get the current degradation level of the governor. On level {@code n}, the
+     * lowest {@code n} quarters of all holograms by priority update {@code 2^n}
+     * times less often.
+     *
+     * @return The level, between 0 (no degradation) and 3.
+     */
+    public int getDegradationLevel() {
+        return governor.getLevel();
+    }
+
+    /**
+     * Get the average time spent ticking holograms per tick, as measured by
+     * the governor. Only measured while the governor is enabled.
+     *
+     * @return The time in milliseconds.
+     */
+    public double getHologramTickMillis() {
+        return governor.getLoadMillis();
+    }
+
+    /**
+     * Get the server TPS, as measured by the governor. Only measured while
+     * the governor is enabled.
+     *
+     * @return The TPS.
+     */
+    public double getMeasuredTps() {
+        return governor.getTps();
+    }
+
+    public boolean isChunkGating() {
+        return chunkGating;
+    }
+
+    /**
+     * Enable or disable the chunk gating.
+     * <p>
+     * When enabled, holograms are only spawned for players, that have the chunk of
+     * the hologram loaded and within their view distance. Spawns in other chunks
+     * are deferred until the chunk is tracked. When the chunk gets untracked, the
+     * hologram is forgotten without sending any packets, because the client removes
+     * the entities together with the chunk.
+     *
+     * @param chunkGating True to enable the chunk gating, false to disable it.
+     */
+    public void setChunkGating(boolean chunkGating) {
+        this.chunkGating = chunkGating;
+        invalidateVisibility();
+    }
+
+    @NonNull
+    public OcclusionMode getOcclusionMode() {
+        return occlusionMode;
+    }
+
+    /**
+     * Set how holograms behind solid blocks are treated. The line of sight
+     * between players and the holograms in their range is checked asynchronously
+     * every {@value #OCCLUSION_INTERVAL} ticks against cached chunk snapshots.
+     * <p>
+     * Occlusion is only supported on 1.13 and newer. On older versions, holograms
+     * are never occluded.
+     *
+     * @param occlusionMode The mode.
+     */
+    public void setOcclusionMode(@NonNull OcclusionMode occlusionMode) {
+        this.occlusionMode = occlusionMode;
+        if (occlusionMode == OcclusionMode.DISABLED) {
+            occlusionCuller.unregister();
+            viewerStates.values().forEach(ViewerState::clearOccluded);
+        } else {
+            occlusionCuller.register();
+        }
+        invalidateVisibility();
+    }
+
+    /**
+     * Check whether the view culling is enabled.
+     *
+     * @return True if the view culling is enabled, false otherwise.
+     * @see #setViewCulling(boolean)
+     */
+    public boolean isViewCulling() {
+        return viewCulling;
+    }
+
+    /**
+     * Enable or disable the view culling.
+     * <p>
+     * When enabled, animation frames aren't sent to viewers, that are facing
+     * away from the hologram. Once the hologram is back in their view, they
+     * receive a single update with the current frame.
+     *
+     * @param viewCulling True to enable the view culling, false to disable it.
+     */
+    public void setViewCulling(boolean viewCulling) {
+        this.viewCulling = viewCulling;
+    }
+
+    public double getViewAngle() {
+        return viewAngle;
+    }
+
+    /**
+     * Set the opening angle of the view cone used by the view culling.
+     *
+     * @param viewAngle The angle in degrees, between 0 and 360.
+     * @throws IllegalArgumentException If the angle is out of range.
+     */
+    public void setViewAngle(double viewAngle) {
+        if (viewAngle < 0 || viewAngle > 360) {
+            throw new IllegalArgumentException("View angle must be between 0 and 360 degrees!");
+        }
+        this.viewAngle = viewAngle;
+        this.viewCosine = Math.cos(Math.toRadians(viewAngle / 2.0d));
+    }
+
+    /**
+     * Check whether the given point is in the view of the player with the given
+     * snapshot. Points close to the player are always considered to be in view,
+     * so holograms right next to the player don't flicker when they look around.
+     *
+     * @param snapshot The snapshot of the player.
+     * @param x        X coordinate of the point.
+     * @param y        Y coordinate of the point.
+     * @param z        Z coordinate of the point.
+     * @return True if the point is in view, false otherwise.
+     */
+    public boolean isInView(@NonNull PlayerSnapshot snapshot, double x, double y, double z) {
+        if (snapshot.distanceSquared(x, y, z) <= VIEW_CULLING_MIN_DISTANCE_SQUARED) {
+            return true;
+        }
+        return snapshot.isInViewCone(x, y, z, viewCosine);
+    }
+
+    /**
+     * Get the snapshot of the given player from the current tick.
+     *
+     * @param player The player.
+     * @return The snapshot or null if the players world isn't available.
+     */
+    private PlayerSnapshot getSnapshot(@NonNull Player player) {
+        return HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+    }
+
+    /**
+     * Get all holograms, that could be in display range of the player with
+     * the given snapshot, using the spatial index. The queried area is
+     * extended by the distance the player covers in the look-ahead time.
+     *
+     * @param snapshot The snapshot of the player.
+     * @return List of candidate holograms.
+     */
+    @NonNull
+    List<Hologram> getCandidates(@NonNull PlayerSnapshot snapshot) {
+        double radius = grid.getMaxDisplayRange();
+        int lookAheadTicks = grid.getMaxLookAheadTicks();
+        if (lookAheadTicks > 0) {
+            ViewerState state = viewerStates.get(snapshot.getUniqueId());
+            if (state != null) {
+                radius += state.getHorizontalSpeed() * lookAheadTicks;
+            }
+        }
+        return grid.getCandidates(snapshot.getWorldId(), snapshot.getX(), snapshot.getZ(), radius);
+    }
+
+    /**
+     * Record the position of the given snapshot in the players viewer state,
+     * so that their velocity can be estimated for the look-ahead.
+     *
+     * @param player   The player.
+     * @param snapshot The snapshot of the player.
+     * @return The viewer state of the player.
+     */
+    @NonNull
+    private ViewerState sampleMovement(@NonNull Player player, @NonNull PlayerSnapshot snapshot) {
+        ViewerState state = getViewerState(player);
+        state.sample(snapshot.getWorldId(), snapshot.getX(), snapshot.getY(), snapshot.getZ(), System.nanoTime());
+        return state;
+    }
+
     /**
      * Spawn a temporary line that is going to disappear after the given duration.
      *
@@ -147,21 +838,41 @@ public class HologramManager extends Ticked {
     }
 
     public void onQuit(@NonNull Player player) {
-        Hologram.getCachedHolograms().forEach(hologram -> hologram.onQuit(player));
         clickCooldowns.remove(player.getUniqueId());
+        ViewerState state = viewerStates.remove(player.getUniqueId());
+        if (state == null) {
+            return;
+        }
+        Set<Hologram> holograms = new HashSet<>(state.getVisibleHolograms());
+        holograms.addAll(state.getStateHolograms());
+        holograms.forEach(hologram -> hologram.onQuit(player));
+        // Remaining lines are temporary lines or lines of holograms, that aren't visible as a whole.
+        new ArrayList<>(state.getVisibleLines()).forEach(line -> line.hide(player));
     }
 
     /**
      * Reload this manager and all the holograms.
      */
     public synchronized void reload() {
-        this.destroy();
+        this.destroyHolograms();
     }
 
     /**
      * Destroy this manager and all the holograms.
      */
     public synchronized void destroy() {
+        this.destroyHolograms();
+        shards.destroy();
+        governor.stop();
+        viewerStates.clear();
+    }
+
+    /**
+     * Destroy the registered holograms and temporary lines. Holograms, that
+     * aren't registered in this manager (e.g. created via the API), keep being
+     * ticked and the viewer states keep tracking who can see them.
+     */
+    private void destroyHolograms() {
         // Destroy registered holograms
         for (Hologram hologram : getHolograms()) {
             hologram.destroy();
@@ -197,14 +908,47 @@ public class HologramManager extends Ticked {
      * @param player Given player.
      */
     public void hideAll(@NonNull Player player) {
-        for (Hologram hologram : getHolograms()) {
-            hologram.hide(player);
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        if (state == null) {
+            return;
         }
-        for (HologramLine line : temporaryLines) {
-            line.hide(player);
+        for (Hologram hologram : new ArrayList<>(state.getVisibleHolograms())) {
+            if (hologramMap.get(hologram.getName()) == hologram) {
+                hologram.hide(player);
+            }
+        }
+        for (HologramLine line : new ArrayList<>(state.getVisibleLines())) {
+            if (temporaryLines.contains(line)) {
+                line.hide(player);
+            }
         }
     }
 
+    /**
+     * Get all holograms currently visible to the given player.
+     *
+     * @param player The player.
+     * @return Unmodifiable set of the visible holograms.
+     */
+    @NonNull
+    public Set<Hologram> getVisibleHolograms(@NonNull Player player) {
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        return state == null ? Collections.emptySet() : state.getVisibleHolograms();
+    }
+
+    /**
+     * Get all lines currently visible to the given player, including
+     * temporary lines and lines of holograms.
+     *
+     * @param player The player.
+     * @return Unmodifiable set of the visible lines.
+     */
+    @NonNull
+    public Set<HologramLine> getVisibleLines(@NonNull Player player) {
+        ViewerState state = viewerStates.get(player.getUniqueId());
+        return state == null ? Collections.emptySet() : state.getVisibleLines();
+    }
+
     /**
      * Check whether a hologram with the given name is registered in this manager.
      *
@@ -264,8 +1008,112 @@ public class HologramManager extends Ticked {
         return hologramMap.values();
     }
 
+    /**
+     * Get all holograms in the given world. Unlike {@link #getHolograms()}, this
+     * includes holograms, that aren't registered in this manager, e.g. holograms
+     * created through the API without saving them. Use {@link #getHologram(String)}
+     * to check whether a hologram is registered.
+     *
+     * @param world The world.
+     * @return Collection of all holograms in the world.
+     */
+    @NonNull
+    public Collection<Hologram> getHolograms(@NonNull World world) {
+        WorldHologramSet set = grid.getWorld(world.getUID());
+        return set == null ? Collections.emptySet() : set.getHolograms();
+    }
+
+    /**
+     * Get the holograms in the given world.
+     *
+     * @param world The world.
+     * @return The holograms or null if there are no holograms in the world.
+     */
+    public WorldHologramSet getWorldHolograms(@NonNull World world) {
+        return grid.getWorld(world.getUID());
+    }
+
+    /**
+     * Get all holograms within the given radius around the given location.
+     *
+     * @param location The location.
+     * @param radius   The radius in blocks.
+     * @return List of all holograms in range.
+     */
+    @NonNull
+    public List<Hologram> getHologramsNear(@NonNull Location location, double radius) {
+        return grid.getNear(location, radius);
+    }
+
+    /**
+     * Get all holograms inside the given bounding box in the given world.
+     *
+     * @param world The world.
+     * @param box   The bounding box.
+     * @return List of all holograms inside the bounding box.
+     */
+    @NonNull
+    public List<Hologram> getHologramsIn(@NonNull World world, @NonNull BoundingBox box) {
+        return grid.getIn(world, box);
+    }
+
+    /**
+     * Get all holograms inside the given bounding box in any world.
+     *
+     * @param box The bounding box.
+     * @return List of all holograms inside the bounding box.
+     */
+    @NonNull
+    public List<Hologram> getHologramsIn(@NonNull BoundingBox box) {
+        List<Hologram> holograms = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            holograms.addAll(grid.getIn(world, box));
+        }
+        return holograms;
+    }
+
+    /**
+     * Get the spatial index of all cached holograms.
+     *
+     * @return The hologram grid.
+     */
+    @NonNull
+    public HologramGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Get the region shards, the enabled holograms are ticked in.
+     *
+     * @return The hologram shards.
+     */
+    @NonNull
+    HologramShards getShards() {
+        return shards;
+    }
+
+    /**
+     * Get the governor, that degrades low priority holograms under load.
+     *
+     * @return The governor.
+     */
+    @NonNull
+    HologramGovernor getGovernor() {
+        return governor;
+    }
+
+    /**
+     * Get the amount of shards, the holograms are currently ticked in.
+     *
+     * @return The amount of shards.
+     */
+    public int getShardCount() {
+        return shards.getShardCount();
+    }
+
     @NonNull
     public Map<String, Set<String>> getToLoad() {
         return toLoad;
     }
-}
\ No newline at end of file
+
+}
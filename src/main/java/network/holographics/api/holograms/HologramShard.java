@@ -0,0 +1,204 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternal;
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.utils.Common;
+import network.holographics.api.utils.tick.Ticked;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * Group of holograms in the same region, that is ticked as a single unit.
+ * The holograms are ticked one after another on the same thread, instead of
+ * dispatching a separate task for each of them, and share a {@link ViewerCache}.
+ * <p>
+ * Holograms only join or leave a shard between its ticks. Added holograms are
+ * ticked from the next tick on and holograms moved to another shard are handed
+ * over after this shard finished its tick, so no hologram is ticked twice in
+ * the same tick.
+ *
+ * @see HologramShards
+ */
+class HologramShard extends Ticked {
+
+    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+
+    private final @NonNull List<Hologram> holograms;
+    private final @NonNull Queue<Incoming> incoming;
+    private final @NonNull Map<Hologram, HologramShard> outgoing;
+    private final @NonNull HologramShards shards;
+    private final @NonNull HologramGovernor governor;
+    private final @NonNull ViewerCache viewerCache;
+    private volatile boolean retiring;
+
+    HologramShard(@NonNull String id, @NonNull HologramShards shards, @NonNull HologramGovernor governor) {
+        super(id, 1L);
+        this.holograms = new CopyOnWriteArrayList<>();
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.outgoing = new ConcurrentHashMap<>();
+        this.shards = shards;
+        this.governor = governor;
+        this.viewerCache = new ViewerCache();
+        this.retiring = false;
+    }
+
+    @Override
+    public void tick() {
+        long now = HOLOGRAPHICS_INTERNAL.getTicker().getTicks();
+        absorbIncoming(now);
+
+        long start = System.nanoTime();
+        for (Hologram hologram : holograms) {
+            try {
+                hologram.tick(viewerCache);
+            } catch (Throwable t) {
+                Common.log(Level.WARNING, "Exception encountered while ticking hologram " + hologram.getName(), t);
+            }
+        }
+        viewerCache.clear();
+        governor.record(System.nanoTime() - start);
+
+        if (retiring || !outgoing.isEmpty()) {
+            shards.completeMoves(this, now);
+        }
+    }
+
+    /**
+     * Start ticking the holograms, that were added before the given tick.
+     */
+    private void absorbIncoming(long now) {
+        for (Incoming pending : incoming) {
+            if (pending.tick < now && incoming.remove(pending)) {
+                holograms.add(pending.hologram);
+            }
+        }
+    }
+
+    /**
+     * Add the given hologram to this shard. It's ticked from the tick after
+     * the given one on.
+     *
+     * @param hologram The hologram.
+     * @param now      The current tick.
+     */
+    void add(@NonNull Hologram hologram, long now) {
+        incoming.add(new Incoming(hologram, now));
+    }
+
+    /**
+     * Move the given hologram to the given shard. If this shard hasn't ticked
+     * the hologram yet, it's handed over right away, otherwise after this shard
+     * finished its current tick.
+     *
+     * @param hologram The hologram.
+     * @param target   The shard to move the hologram to.
+     */
+    void moveTo(@NonNull Hologram hologram, @NonNull HologramShard target) {
+        for (Incoming pending : incoming) {
+            if (pending.hologram == hologram && incoming.remove(pending)) {
+                target.incoming.add(pending);
+                return;
+            }
+        }
+        if (holograms.contains(hologram)) {
+            outgoing.put(hologram, target);
+        }
+    }
+
+    /**
+     * Stop ticking the given hologram right away.
+     *
+     * @param hologram The hologram.
+     */
+    void remove(@NonNull Hologram hologram) {
+        holograms.remove(hologram);
+        incoming.removeIf(pending -> pending.hologram == hologram);
+        outgoing.remove(hologram);
+    }
+
+    /**
+     * Take the holograms, that are moved to other shards, and stop ticking them.
+     *
+     * @return Map of the holograms to the shards they are moved to.
+     */
+    @NonNull
+    List<Map.Entry<Hologram, HologramShard>> takeOutgoing() {
+        List<Map.Entry<Hologram, HologramShard>> taken = new ArrayList<>();
+        Iterator<Map.Entry<Hologram, HologramShard>> iterator = outgoing.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Hologram, HologramShard> entry = iterator.next();
+            iterator.remove();
+            holograms.remove(entry.getKey());
+            taken.add(entry);
+        }
+        return taken;
+    }
+
+    /**
+     * Get the holograms, that are ticked or will be ticked by this shard.
+     *
+     * @return List of the holograms.
+     */
+    @NonNull
+    List<Hologram> getHolograms() {
+        List<Hologram> result = new ArrayList<>(holograms);
+        incoming.forEach(pending -> result.add(pending.hologram));
+        result.removeAll(outgoing.keySet());
+        return result;
+    }
+
+    /**
+     * Get the amount of holograms, that stay in this shard.
+     *
+     * @return The amount of holograms.
+     */
+    int size() {
+        return holograms.size() + incoming.size() - outgoing.size();
+    }
+
+    /**
+     * Check whether this shard doesn't hold any holograms anymore, including
+     * the ones, that are about to be moved to other shards.
+     *
+     * @return True if the shard is empty, false otherwise.
+     */
+    boolean isEmpty() {
+        return holograms.isEmpty() && incoming.isEmpty();
+    }
+
+    boolean isRetiring() {
+        return retiring;
+    }
+
+    /**
+     * Mark this shard as retiring. It doesn't get new holograms anymore and is
+     * unregistered, once all of its holograms have been moved.
+     */
+    void retire() {
+        this.retiring = true;
+    }
+
+    /**
+     * A hologram added to this shard and the tick it was added in.
+     */
+    private static final class Incoming {
+
+        private final Hologram hologram;
+        private final long tick;
+
+        private Incoming(Hologram hologram, long tick) {
+            this.hologram = hologram;
+            this.tick = tick;
+        }
+    }
+
+}
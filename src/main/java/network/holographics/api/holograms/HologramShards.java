@@ -0,0 +1,309 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternal;
+import network.holographics.api.HolographicsInternalAPI;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Assigns enabled holograms to {@link HologramShard}s by region, so the ticker
+ * only has to dispatch one task per shard instead of one per hologram. Holograms
+ * close to each other share a shard and usually also their viewers.
+ * <p>
+ * Each region gets as many shards as it needs to keep every shard at most
+ * {@value #MAX_SHARD_SIZE} holograms large. When a region needs another shard,
+ * half of the holograms of its largest shard are moved to the new one. When
+ * holograms are removed, shards of the same region, that became small enough,
+ * are merged again.
+ * <p>
+ * Holograms only move between shards after the shard they leave finished its
+ * tick, and join the new shard from the next tick on, so a hologram is never
+ * ticked twice in the same tick.
+ */
+class HologramShards {
+
+    /**
+     * Size of a single region in blocks, expressed as a bit shift. (512 blocks, one region file)
+     */
+    static final int REGION_SHIFT = 9;
+    static final int MAX_SHARD_SIZE = 64;
+    private static final UUID UNKNOWN_WORLD = new UUID(0L, 0L);
+    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+
+    private final @NonNull Map<Region, List<HologramShard>> regions;
+    private final @NonNull Map<Hologram, Assignment> assignments;
+    private final @NonNull HologramGovernor governor;
+    private int nextShardId;
+
+    HologramShards(@NonNull HologramGovernor governor) {
+        this.governor = governor;
+        this.regions = new HashMap<>();
+        this.assignments = new IdentityHashMap<>();
+        this.nextShardId = 0;
+    }
+
+    /**
+     * Start ticking the given hologram in the shard of its region. If the
+     * hologram moved to a different region, it's moved to a shard there.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void add(@NonNull Hologram hologram) {
+        Region region = Region.of(hologram.getLocation());
+        Assignment assignment = assignments.get(hologram);
+        if (assignment != null) {
+            if (assignment.region.equals(region)) {
+                return;
+            }
+            remove(hologram);
+        }
+
+        place(region, hologram, HOLOGRAPHICS_INTERNAL.getTicker().getTicks());
+        governor.track(hologram);
+    }
+
+    /**
+     * Stop ticking the given hologram.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void remove(@NonNull Hologram hologram) {
+        Assignment assignment = assignments.remove(hologram);
+        if (assignment == null) {
+            return;
+        }
+        assignment.shard.remove(hologram);
+        if (assignment.source != null) {
+            assignment.source.remove(hologram);
+        }
+        governor.untrack(hologram);
+        List<HologramShard> shards = regions.get(assignment.region);
+        if (shards == null) {
+            return;
+        }
+        if (assignment.shard.isEmpty()) {
+            retire(assignment.region, assignment.shard, shards);
+            return;
+        }
+        rebalance(assignment.region, assignment.shard, shards);
+    }
+
+    /**
+     * Move the given hologram to the shard of its current region, if it's ticked.
+     *
+     * @param hologram The hologram.
+     */
+    synchronized void update(@NonNull Hologram hologram) {
+        if (assignments.containsKey(hologram)) {
+            add(hologram);
+        }
+    }
+
+    /**
+     * Hand the holograms, that the given shard moves to other shards, over to
+     * them. Called by the shard after it finished its tick, so the holograms
+     * aren't ticked by both shards in the same tick.
+     *
+     * @param source The shard, that finished its tick.
+     * @param now    The tick, that the shard finished.
+     */
+    synchronized void completeMoves(@NonNull HologramShard source, long now) {
+        for (Map.Entry<Hologram, HologramShard> move : source.takeOutgoing()) {
+            Hologram hologram = move.getKey();
+            Assignment assignment = assignments.get(hologram);
+            if (assignment == null || assignment.shard != move.getValue()) {
+                // The hologram was removed or moved somewhere else meanwhile.
+                continue;
+            }
+            if (assignment.shard.isRetiring()) {
+                // The target is being merged into another shard itself.
+                place(assignment.region, hologram, now);
+                continue;
+            }
+            assignment.shard.add(hologram, now);
+            assignments.put(hologram, new Assignment(assignment.region, assignment.shard, null));
+        }
+
+        if (source.isRetiring() && source.isEmpty()) {
+            for (Map.Entry<Region, List<HologramShard>> entry : regions.entrySet()) {
+                if (entry.getValue().contains(source)) {
+                    retire(entry.getKey(), source, entry.getValue());
+                    return;
+                }
+            }
+            source.unregister();
+        }
+    }
+
+    /**
+     * Add the given hologram to the smallest shard of the given region, that
+     * still has room for it. If there is none, a new shard is created and half
+     * of the largest shard of the region is moved to it.
+     */
+    private void place(@NonNull Region region, @NonNull Hologram hologram, long now) {
+        List<HologramShard> shards = regions.computeIfAbsent(region, k -> new ArrayList<>());
+        HologramShard shard = null;
+        HologramShard largest = null;
+        for (HologramShard candidate : shards) {
+            if (candidate.isRetiring()) {
+                continue;
+            }
+            if (candidate.size() < MAX_SHARD_SIZE && (shard == null || candidate.size() < shard.size())) {
+                shard = candidate;
+            }
+            if (largest == null || candidate.size() > largest.size()) {
+                largest = candidate;
+            }
+        }
+        if (shard == null) {
+            shard = new HologramShard("holograms-shard-" + nextShardId++, this, governor);
+            shards.add(shard);
+            shard.register();
+            if (largest != null) {
+                List<Hologram> holograms = largest.getHolograms();
+                for (Hologram moved : holograms.subList(holograms.size() / 2, holograms.size())) {
+                    largest.moveTo(moved, shard);
+                    assignments.put(moved, new Assignment(region, shard, largest));
+                }
+            }
+        }
+        shard.add(hologram, now);
+        assignments.put(hologram, new Assignment(region, shard, null));
+    }
+
+    /**
+     * Merge the given shard into another shard of the same region, if they
+     * both fit into half of a shard. Merging only at half size keeps holograms
+     * from moving back and forth, when a region is right at the limit.
+     * <p>
+     * The holograms are moved after the given shard finished its current tick.
+     */
+    private void rebalance(@NonNull Region region, @NonNull HologramShard shard, @NonNull List<HologramShard> shards) {
+        if (shard.isRetiring()) {
+            return;
+        }
+        HologramShard target = null;
+        for (HologramShard candidate : shards) {
+            if (candidate != shard && !candidate.isRetiring() && (target == null || candidate.size() < target.size())) {
+                target = candidate;
+            }
+        }
+        if (target == null || target.size() + shard.size() > MAX_SHARD_SIZE / 2) {
+            return;
+        }
+        shard.retire();
+        for (Hologram hologram : shard.getHolograms()) {
+            shard.moveTo(hologram, target);
+            assignments.put(hologram, new Assignment(region, target, shard));
+        }
+        if (shard.isEmpty()) {
+            retire(region, shard, shards);
+        }
+    }
+
+    /**
+     * Stop ticking the given empty shard.
+     */
+    private void retire(@NonNull Region region, @NonNull HologramShard shard, @NonNull List<HologramShard> shards) {
+        shard.retire();
+        shard.unregister();
+        shards.remove(shard);
+        if (shards.isEmpty()) {
+            regions.remove(region);
+        }
+    }
+
+    /**
+     * Stop ticking all holograms.
+     */
+    synchronized void destroy() {
+        regions.values().forEach(shards -> shards.forEach(HologramShard::unregister));
+        regions.clear();
+        assignments.keySet().forEach(governor::untrack);
+        assignments.clear();
+    }
+
+    /**
+     * Get the amount of shards, that are currently ticked.
+     *
+     * @return The amount of shards.
+     */
+    synchronized int getShardCount() {
+        int count = 0;
+        for (List<HologramShard> shards : regions.values()) {
+            count += shards.size();
+        }
+        return count;
+    }
+
+    private static final class Assignment {
+
+        private final Region region;
+        private final HologramShard shard;
+        /**
+         * The shard, that still ticks the hologram until it's moved to {@link #shard}, or null.
+         */
+        private final HologramShard source;
+
+        private Assignment(Region region, HologramShard shard, HologramShard source) {
+            this.region = region;
+            this.shard = shard;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Region of a world, the shards are grouped by.
+     */
+    private static final class Region {
+
+        private final UUID world;
+        private final int x;
+        private final int z;
+
+        private Region(UUID world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        private static Region of(@NonNull Location location) {
+            UUID world;
+            /*
+             * Some forks (e.g. Pufferfish) throw an exception, when we try to get
+             * the world of a location, which is not loaded. Such holograms are
+             * grouped by their coordinates only.
+             */
+            try {
+                World bukkitWorld = location.getWorld();
+                world = bukkitWorld == null ? UNKNOWN_WORLD : bukkitWorld.getUID();
+            } catch (Exception ignored) {
+                world = UNKNOWN_WORLD;
+            }
+            return new Region(world, location.getBlockX() >> REGION_SHIFT, location.getBlockZ() >> REGION_SHIFT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Region)) return false;
+            Region region = (Region) o;
+            return x == region.x && z == region.z && world.equals(region.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, x, z);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternal;
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.holograms.enums.OcclusionMode;
+import network.holographics.api.player.PlayerSnapshot;
+import network.holographics.api.player.ViewerState;
+import network.holographics.api.utils.objects.BoundingBox;
+import network.holographics.api.utils.tick.Ticked;
+import network.holographics.api.world.BlockSnapshotCache;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * This ticked object checks the line of sight between players and the holograms
+ * in their range at a low rate. The results are stored in the {@link ViewerState}
+ * of each player and used to freeze or hide occluded holograms.
+ *
+ * @see HologramManager#setOcclusionMode(OcclusionMode)
+ */
+class OcclusionCuller extends Ticked {
+
+    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+
+    private final @NonNull HologramManager manager;
+
+    OcclusionCuller(@NonNull HologramManager manager, long interval) {
+        super(interval);
+        this.manager = manager;
+    }
+
+    @Override
+    public void tick() {
+        OcclusionMode mode = manager.getOcclusionMode();
+        if (mode == OcclusionMode.DISABLED) {
+            return;
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+            if (snapshot == null) {
+                continue;
+            }
+            ViewerState state = manager.getViewerState(player);
+            List<Hologram> candidates = manager.getCandidates(snapshot);
+            // Holograms out of the candidate cells, e.g. after a teleport, can't be occluded anymore.
+            state.retainOccluded(new HashSet<>(candidates));
+            for (Hologram hologram : candidates) {
+                Location location = hologram.getLocation();
+                int range = hologram.getExitRange();
+                if (snapshot.distanceSquared(location.getX(), location.getY(), location.getZ()) > range * range) {
+                    state.setOccluded(hologram, false);
+                    continue;
+                }
+                boolean occluded = isOccluded(player, snapshot, hologram);
+                if (state.setOccluded(hologram, occluded) && mode == OcclusionMode.HIDE) {
+                    manager.updateVisibility(player, hologram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether the given hologram is hidden behind solid blocks from the
+     * position of the given snapshot. The hologram is occluded only if its top,
+     * center and bottom are all out of sight.
+     *
+     * @param player   The player.
+     * @param snapshot The snapshot of the player.
+     * @param hologram The hologram.
+     * @return True if the hologram is occluded, false otherwise.
+     */
+    private boolean isOccluded(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        BlockSnapshotCache cache = HOLOGRAPHICS_INTERNAL.getBlockSnapshotCache();
+        BoundingBox box = getBoundingBox(player, hologram);
+        double eyeX = snapshot.getX();
+        double eyeY = snapshot.getY() + PlayerSnapshot.EYE_HEIGHT;
+        double eyeZ = snapshot.getZ();
+        double x = box.getCenterX();
+        double z = box.getCenterZ();
+        return cache.isObstructed(snapshot.getWorldId(), eyeX, eyeY, eyeZ, x, box.getMaxY(), z)
+                && cache.isObstructed(snapshot.getWorldId(), eyeX, eyeY, eyeZ, x, box.getCenterY(), z)
+                && cache.isObstructed(snapshot.getWorldId(), eyeX, eyeY, eyeZ, x, box.getMinY(), z);
+    }
+
+    @NonNull
+    private BoundingBox getBoundingBox(@NonNull Player player, @NonNull Hologram hologram) {
+        Location location = hologram.getLocation();
+        HologramPage page = hologram.getPage(hologram.getPlayerPage(player));
+        double height = page == null ? 0.0d : page.getHeight();
+        double bottom = hologram.isDownOrigin() ? location.getY() : location.getY() - height;
+        return new BoundingBox(location.getX(), bottom, location.getZ(), location.getX(), bottom + height, location.getZ());
+    }
+
+}
@@ -0,0 +1,41 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.player.ViewerState;
+import network.holographics.api.utils.tick.Ticked;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+
+/**
+ * This ticked object spawns the queued holograms of all players at the
+ * configured rate, nearest first.
+ *
+ * @see HologramManager#setSpawnRate(int)
+ */
+class SpawnRamp extends Ticked {
+
+    private final @NonNull HologramManager manager;
+
+    SpawnRamp(@NonNull HologramManager manager) {
+        super(1L);
+        this.manager = manager;
+    }
+
+    @Override
+    public void tick() {
+        for (ViewerState state : manager.getViewerStates()) {
+            if (state.getSpawnQueueSize() == 0) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(state.getUniqueId());
+            if (player == null || !player.isOnline()) {
+                state.setSpawnQueue(Collections.emptyList());
+                continue;
+            }
+            manager.drainSpawnQueue(player, state);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternal;
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.player.PlayerSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Viewers resolved during a single tick of a {@link HologramShard}. Holograms
+ * of a shard are close to each other and usually share their viewers, so every
+ * viewer and their snapshot only has to be looked up once per tick, instead of
+ * once per hologram.
+ * <p>
+ * This class is not thread-safe, it's only used by the thread ticking the shard.
+ */
+final class ViewerCache {
+
+    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+
+    private final @NonNull Map<UUID, Player> players;
+    private final @NonNull Map<UUID, PlayerSnapshot> snapshots;
+
+    ViewerCache() {
+        this.players = new HashMap<>();
+        this.snapshots = new HashMap<>();
+    }
+
+    /**
+     * Get the online players with the given UUIDs.
+     *
+     * @param uniqueIds UUIDs of the players.
+     * @return List of the players, that are online.
+     */
+    @NonNull
+    List<Player> getPlayers(@NonNull Collection<UUID> uniqueIds) {
+        List<Player> result = new ArrayList<>(uniqueIds.size());
+        for (UUID uniqueId : uniqueIds) {
+            Player player = getPlayer(uniqueId);
+            if (player != null) {
+                result.add(player);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the online player with the given UUID.
+     *
+     * @param uniqueId UUID of the player.
+     * @return The player or null if they aren't online.
+     */
+    Player getPlayer(@NonNull UUID uniqueId) {
+        if (players.containsKey(uniqueId)) {
+            return players.get(uniqueId);
+        }
+        Player player = Bukkit.getPlayer(uniqueId);
+        if (player != null && !player.isOnline()) {
+            player = null;
+        }
+        players.put(uniqueId, player);
+        return player;
+    }
+
+    /**
+     * Get the snapshot of the given player from the current tick.
+     *
+     * @param player The player.
+     * @return The snapshot or null if the players world isn't available.
+     */
+    PlayerSnapshot getSnapshot(@NonNull Player player) {
+        UUID uniqueId = player.getUniqueId();
+        if (snapshots.containsKey(uniqueId)) {
+            return snapshots.get(uniqueId);
+        }
+        PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+        snapshots.put(uniqueId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Forget all resolved viewers, so no players are retained between ticks.
+     */
+    void clear() {
+        players.clear();
+        snapshots.clear();
+    }
+
+}
@@ -0,0 +1,92 @@
+package network.holographics.api.holograms;
+
+import lombok.Getter;
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.player.PlayerSnapshot;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of a visibility evaluation for a single player. It contains all
+ * holograms, that should be visible to the player, and the holograms that
+ * entered or left the players view since the previous evaluation.
+ *
+ * @see HologramManager#computeVisibilityDiff(Player, PlayerSnapshot, java.util.Collection)
+ */
+@Getter
+public class VisibilityDiff {
+
+    private final @NonNull Player player;
+    private final @NonNull PlayerSnapshot snapshot;
+    private final @NonNull Set<Hologram> holograms;
+    private final @NonNull List<Hologram> entered;
+    private final @NonNull List<Hologram> left;
+    /**
+     * Whether some holograms in range weren't shown, because their chunk
+     * isn't tracked by the player yet.
+     */
+    private final boolean deferred;
+
+    public VisibilityDiff(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Set<Hologram> holograms,
+                          @NonNull List<Hologram> entered, @NonNull List<Hologram> left, boolean deferred) {
+        this.player = player;
+        this.snapshot = snapshot;
+        this.holograms = holograms;
+        this.entered = entered;
+        this.left = left;
+        this.deferred = deferred;
+    }
+
+    /**
+     * Check whether this diff doesn't change anything.
+     *
+     * @return True if no hologram entered or left the view, false otherwise.
+     */
+    public boolean isEmpty() {
+        return entered.isEmpty() && left.isEmpty();
+    }
+
+    /**
+     * Hide all holograms that left and show all holograms that entered
+     * the players view.
+     */
+    public void apply() {
+        hideLeft();
+        showEntered();
+    }
+
+    /**
+     * Hide all holograms that left the players view, unless they have
+     * been hidden in the meantime.
+     */
+    public void hideLeft() {
+        HologramManager manager = HolographicsInternalAPI.get().getHologramManager();
+        for (Hologram hologram : left) {
+            synchronized (hologram.getVisibilityMutex()) {
+                if (hologram.isVisible(player)) {
+                    manager.despawn(player, snapshot, hologram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Show all holograms that entered the players view, unless they have
+     * been shown in the meantime or shouldn't be visible anymore.
+     */
+    public void showEntered() {
+        HologramManager manager = HolographicsInternalAPI.get().getHologramManager();
+        for (Hologram hologram : entered) {
+            // The decision is re-checked under the mutex, as the hologram could have changed since the diff was computed.
+            synchronized (hologram.getVisibilityMutex()) {
+                if (!hologram.isVisible(player) && manager.shouldBeVisible(player, snapshot, hologram)) {
+                    hologram.show(player, hologram.getPlayerPage(player));
+                }
+            }
+        }
+    }
+
+}
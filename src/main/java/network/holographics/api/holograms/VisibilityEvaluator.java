@@ -0,0 +1,350 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.HolographicsInternal;
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.holograms.enums.OcclusionMode;
+import network.holographics.api.holograms.enums.VisibilityPriority;
+import network.holographics.api.player.PlayerSnapshot;
+import network.holographics.api.player.ViewerState;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class decides, which holograms a player should see, and shows or hides
+ * them accordingly. It computes the {@link VisibilityDiff}s of players, selects
+ * the most important holograms, when a player may only see a limited amount,
+ * and gates spawns by the chunks tracked by the player.
+ * <p>
+ * The settings are read from the {@link HologramManager}, which also decides,
+ * when the visibility of a player is evaluated.
+ */
+final class VisibilityEvaluator {
+
+    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+    /**
+     * Factor applied to the score of holograms, that are already visible, so
+     * they don't get swapped with other holograms at almost the same distance.
+     */
+    private static final double VISIBLE_SCORE_FACTOR = 0.9d;
+
+    private final @NonNull HologramManager manager;
+
+    VisibilityEvaluator(@NonNull HologramManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Compute which holograms entered and which left the view of the given player.
+     * If more holograms are in range than the player is allowed to see, only the
+     * most important ones are selected and the others are evicted.
+     *
+     * @param player   The player.
+     * @param snapshot The position to evaluate the player at.
+     * @param previous Holograms, that could currently be visible to the player.
+     * @return The computed diff.
+     */
+    @NonNull
+    VisibilityDiff computeDiff(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Collection<Hologram> previous) {
+        List<Hologram> eligible = new ArrayList<>();
+        boolean deferred = false;
+        for (Hologram hologram : manager.getCandidates(snapshot)) {
+            if (isShowable(player, snapshot, hologram)) {
+                ChunkState chunkState = getChunkState(player, snapshot, hologram);
+                if (chunkState == ChunkState.TRACKED) {
+                    eligible.add(hologram);
+                } else if (chunkState == ChunkState.LOADING) {
+                    // Chunks beyond the view distance only become tracked by moving, which is re-checked anyway.
+                    deferred = true;
+                }
+            }
+        }
+
+        Set<Hologram> holograms = new HashSet<>(selectVisible(player, snapshot, eligible));
+        List<Hologram> entered = new ArrayList<>();
+        Set<Hologram> left = new LinkedHashSet<>();
+        for (Hologram hologram : eligible) {
+            boolean visible = hologram.isVisible(player);
+            if (holograms.contains(hologram) && !visible) {
+                entered.add(hologram);
+            } else if (!holograms.contains(hologram) && visible) {
+                left.add(hologram);
+            }
+        }
+        for (Hologram hologram : previous) {
+            if (!holograms.contains(hologram) && hologram.isVisible(player)) {
+                left.add(hologram);
+            }
+        }
+        return new VisibilityDiff(player, snapshot, holograms, entered, new ArrayList<>(left), deferred);
+    }
+
+    /**
+     * Select the holograms, that the given player should see, out of the holograms
+     * in their range, respecting the maximum number of visible holograms.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param eligible Holograms, that are in range of the player.
+     * @return The selected holograms.
+     */
+    @NonNull
+    private List<Hologram> selectVisible(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull List<Hologram> eligible) {
+        int max = manager.getMaxVisibleHolograms();
+        if (max <= 0 || eligible.size() <= max) {
+            return eligible;
+        }
+
+        VisibilityPriority priority = manager.getVisibilityPriority();
+        List<ScoredHologram> scored = new ArrayList<>(eligible.size());
+        for (Hologram hologram : eligible) {
+            scored.add(new ScoredHologram(hologram, getScore(player, snapshot, hologram, priority)));
+        }
+        scored.sort(Comparator.comparingDouble(scoredHologram -> scoredHologram.score));
+
+        List<Hologram> selected = new ArrayList<>(max);
+        for (int i = 0; i < max; i++) {
+            selected.add(scored.get(i).hologram);
+        }
+        return selected;
+    }
+
+    /**
+     * Get the score of the given hologram for the given player. Holograms with
+     * lower scores are more important.
+     */
+    private static double getScore(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram,
+                                   @NonNull VisibilityPriority priority) {
+        Location location = hologram.getLocation();
+        double score = snapshot.distanceSquared(location.getX(), location.getY(), location.getZ());
+        if (priority == VisibilityPriority.WEIGHTED) {
+            double weight = 1.0d + Math.max(0, hologram.getPriority());
+            score /= weight * weight;
+        }
+        if (hologram.isVisible(player)) {
+            score *= VISIBLE_SCORE_FACTOR;
+        }
+        return score;
+    }
+
+    /**
+     * Show and hide the holograms of the given diff and record the evaluation
+     * in the viewer state of the player.
+     *
+     * @param diff    The diff.
+     * @param version The visibility version, the diff was computed at, or -1 to
+     *                have the player evaluated again.
+     */
+    void apply(@NonNull VisibilityDiff diff, long version) {
+        PlayerSnapshot snapshot = diff.getSnapshot();
+        if (manager.getSpawnRate() > 0) {
+            diff.hideLeft();
+            // Spawn the nearest holograms right away and let the rest ramp in.
+            List<Hologram> entered = new ArrayList<>(diff.getEntered());
+            entered.sort(Comparator.comparingDouble(hologram -> {
+                Location location = hologram.getLocation();
+                return snapshot.distanceSquared(location.getX(), location.getY(), location.getZ());
+            }));
+            ViewerState state = manager.getViewerState(diff.getPlayer());
+            state.setSpawnQueue(entered);
+            drainSpawnQueue(diff.getPlayer(), state);
+        } else {
+            diff.apply();
+        }
+        // Holograms in loading chunks have to be evaluated again, even if the player doesn't move.
+        long evaluatedVersion = diff.isDeferred() ? -1L : version;
+        manager.getViewerState(diff.getPlayer()).update(snapshot.getWorldId(), snapshot.getX(), snapshot.getY(), snapshot.getZ(), diff.getHolograms(), evaluatedVersion);
+    }
+
+    /**
+     * Check whether the given hologram should be visible to the given player,
+     * if they were at the position of the given snapshot.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     * @return True if the hologram should be visible, false otherwise.
+     */
+    boolean shouldBeVisible(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        return isShowable(player, snapshot, hologram) && isInTrackedChunk(player, snapshot, hologram);
+    }
+
+    private boolean isShowable(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        if (hologram.isDisabled()) {
+            return false;
+        }
+        // Determine the player's display state of this hologram.
+        if (hologram.isHideState(player) || (!hologram.isDefaultVisibleState() && !hologram.isShowState(player))) {
+            return false;
+        }
+        if (manager.getOcclusionMode() == OcclusionMode.HIDE && manager.isOccluded(player, hologram)) {
+            return false;
+        }
+        return hologram.canShow(player) && hologram.isInDisplayRange(player, snapshot);
+    }
+
+    /**
+     * Show or hide the given hologram for the given player, depending on whether
+     * it should be visible. The decision and the action happen atomically with
+     * respect to other visibility operations on the hologram.
+     *
+     * @param player   The player.
+     * @param hologram The hologram.
+     */
+    void update(@NonNull Player player, @NonNull Hologram hologram) {
+        if (hologram.isDisabled()) {
+            return;
+        }
+
+        synchronized (hologram.getVisibilityMutex()) {
+            PlayerSnapshot snapshot = HOLOGRAPHICS_INTERNAL.getPlayerSnapshotManager().get(player);
+            boolean visible = hologram.isVisible(player);
+            boolean shouldBeVisible = snapshot != null && shouldBeVisible(player, snapshot, hologram);
+            if (!visible && shouldBeVisible) {
+                ViewerState state = manager.getViewerState(player.getUniqueId());
+                if (state != null && state.isSpawnQueued(hologram)) {
+                    // The spawn ramp will take care of it.
+                    return;
+                }
+                int max = manager.getMaxVisibleHolograms();
+                if (max > 0 && manager.getVisibleCount(player) >= max) {
+                    // Replacing less important holograms is up to the next full evaluation.
+                    return;
+                }
+                hologram.show(player, hologram.getPlayerPage(player));
+            } else if (visible && !shouldBeVisible) {
+                despawn(player, snapshot, hologram);
+            }
+        }
+    }
+
+    /**
+     * Spawn up to {@link HologramManager#getSpawnRate()} holograms from the spawn
+     * queue of the given player. Holograms, that shouldn't be visible anymore,
+     * are skipped.
+     *
+     * @param player The player.
+     * @param state  The viewer state of the player.
+     */
+    void drainSpawnQueue(@NonNull Player player, @NonNull ViewerState state) {
+        int spawnRate = manager.getSpawnRate();
+        for (int i = 0; i < spawnRate; i++) {
+            Hologram hologram = state.pollSpawnQueue();
+            if (hologram == null) {
+                return;
+            }
+            update(player, hologram);
+        }
+    }
+
+    /**
+     * Hide the given hologram for the given player. If its chunk isn't tracked
+     * by the player anymore, the client has already removed the entities, so
+     * the hologram is only forgotten without sending any packets.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     */
+    void despawn(@NonNull Player player, PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        if (manager.isChunkGating() && snapshot != null && isInWorld(snapshot, hologram)
+                && getChunkDistance(snapshot, hologram.getLocation()) > snapshot.getViewDistance() + 1) {
+            hologram.forget(player);
+        } else {
+            hologram.hide(player);
+        }
+    }
+
+    /**
+     * Check whether the chunk of the given hologram is tracked by the given player,
+     * if chunk gating is enabled.
+     *
+     * @param player   The player.
+     * @param snapshot The position of the player.
+     * @param hologram The hologram.
+     * @return True if the chunk is tracked or chunk gating is disabled, false otherwise.
+     */
+    boolean isInTrackedChunk(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        return getChunkState(player, snapshot, hologram) == ChunkState.TRACKED;
+    }
+
+    /**
+     * Get the state of the chunk of the given hologram for the given player. Whether
+     * the chunk is loaded is read from the {@link network.holographics.api.world.BlockSnapshotCache},
+     * which is maintained on the main thread, so this is safe to call asynchronously.
+     */
+    @NonNull
+    private ChunkState getChunkState(@NonNull Player player, @NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        if (!manager.isChunkGating()) {
+            return ChunkState.TRACKED;
+        }
+        if (!isInWorld(snapshot, hologram)) {
+            return ChunkState.UNTRACKED;
+        }
+        Location location = hologram.getLocation();
+        int distance = getChunkDistance(snapshot, location);
+        if (hologram.isVisible(player)) {
+            return distance <= snapshot.getViewDistance() + 1 ? ChunkState.TRACKED : ChunkState.UNTRACKED;
+        }
+        if (distance > snapshot.getViewDistance()) {
+            return ChunkState.UNTRACKED;
+        }
+        boolean loaded = HOLOGRAPHICS_INTERNAL.getBlockSnapshotCache()
+                .isChunkLoaded(snapshot.getWorldId(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        return loaded ? ChunkState.TRACKED : ChunkState.LOADING;
+    }
+
+    private static boolean isInWorld(@NonNull PlayerSnapshot snapshot, @NonNull Hologram hologram) {
+        World world = hologram.getLocation().getWorld();
+        return world != null && snapshot.isIn(world.getUID());
+    }
+
+    private static int getChunkDistance(@NonNull PlayerSnapshot snapshot, @NonNull Location location) {
+        int dx = Math.abs(HologramGrid.toCell(snapshot.getX()) - (location.getBlockX() >> 4));
+        int dz = Math.abs(HologramGrid.toCell(snapshot.getZ()) - (location.getBlockZ() >> 4));
+        return Math.max(dx, dz);
+    }
+
+    /**
+     * State of the chunk of a hologram for a single player.
+     */
+    private enum ChunkState {
+        /**
+         * The chunk is tracked by the player.
+         */
+        TRACKED,
+        /**
+         * The chunk is beyond the view distance of the player. This only changes,
+         * when the player moves.
+         */
+        UNTRACKED,
+        /**
+         * The chunk is within the view distance, but not loaded yet.
+         */
+        LOADING
+    }
+
+    /**
+     * A hologram with its score for a single player.
+     */
+    private static final class ScoredHologram {
+
+        private final Hologram hologram;
+        private final double score;
+
+        private ScoredHologram(Hologram hologram, double score) {
+            this.hologram = hologram;
+            this.score = score;
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+import network.holographics.api.utils.tick.Ticked;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * This ticked object drives the incremental visibility mode. Every tick it
+ * lets the {@link HologramManager} re-evaluate the players, that moved or
+ * whose holograms changed since their last evaluation.
+ *
+ * @see HologramManager#setIncrementalVisibility(boolean)
+ */
+class VisibilityTracker extends Ticked {
+
+    private final @NonNull HologramManager manager;
+
+    VisibilityTracker(@NonNull HologramManager manager) {
+        super(1L);
+        this.manager = manager;
+    }
+
+    @Override
+    public void tick() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            manager.updateVisibilityIncremental(player);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package network.holographics.api.holograms;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All holograms in a single world, bucketed into chunk sized cells. Per-world
+ * operations, like disabling the holograms of an unloaded world, only have to
+ * look at the holograms in that world instead of at every cached hologram.
+ * <p>
+ * Instances are created and maintained by the {@link HologramGrid}.
+ *
+ * @see HologramManager#getHolograms(org.bukkit.World)
+ */
+public class WorldHologramSet {
+
+    private final @NonNull UUID worldId;
+    private final @NonNull Set<Hologram> holograms;
+    private final @NonNull Map<Long, Set<Hologram>> cells;
+
+    WorldHologramSet(@NonNull UUID worldId) {
+        this.worldId = worldId;
+        this.holograms = ConcurrentHashMap.newKeySet();
+        this.cells = new ConcurrentHashMap<>();
+    }
+
+    void add(@NonNull Hologram hologram, long cell) {
+        cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(hologram);
+        holograms.add(hologram);
+    }
+
+    void remove(@NonNull Hologram hologram, long cell) {
+        Set<Hologram> cellHolograms = cells.get(cell);
+        if (cellHolograms != null) {
+            cellHolograms.remove(hologram);
+            if (cellHolograms.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+        holograms.remove(hologram);
+    }
+
+    /**
+     * Get all holograms in the cells overlapping the square with the given
+     * center and radius. The result is not filtered by the exact distance,
+     * so it may contain holograms slightly outside the radius.
+     *
+     * @param x      X coordinate of the center.
+     * @param z      Z coordinate of the center.
+     * @param radius The radius.
+     * @return List of candidate holograms.
+     */
+    @NonNull
+    public List<Hologram> getCandidates(double x, double z, double radius) {
+        if (cells.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int minX = HologramGrid.toCell(x - radius);
+        int maxX = HologramGrid.toCell(x + radius);
+        int minZ = HologramGrid.toCell(z - radius);
+        int maxZ = HologramGrid.toCell(z + radius);
+
+        List<Hologram> result = new ArrayList<>();
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > cells.size()) {
+            // The area is larger than the populated part of the world,
+            // so it's cheaper to just filter the populated cells.
+            for (Map.Entry<Long, Set<Hologram>> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int cx = (int) (key >> 32);
+                int cz = (int) key;
+                if (cx >= minX && cx <= maxX && cz >= minZ && cz <= maxZ) {
+                    result.addAll(entry.getValue());
+                }
+            }
+            return result;
+        }
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                Set<Hologram> cellHolograms = cells.get(key(cx, cz));
+                if (cellHolograms != null) {
+                    result.addAll(cellHolograms);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the UID of the world of this set.
+     *
+     * @return The UID.
+     */
+    @NonNull
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    /**
+     * Get all holograms in this world.
+     *
+     * @return Unmodifiable view of the holograms.
+     */
+    @NonNull
+    public Set<Hologram> getHolograms() {
+        return Collections.unmodifiableSet(holograms);
+    }
+
+    public int size() {
+        return holograms.size();
+    }
+
+    public boolean isEmpty() {
+        return holograms.isEmpty();
+    }
+
+    /**
+     * Pack the given cell coordinates into a single key.
+     *
+     * @param cx X coordinate of the cell.
+     * @param cz Z coordinate of the cell.
+     * @return The key.
+     */
+    static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+}
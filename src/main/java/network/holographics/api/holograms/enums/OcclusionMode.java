@@ -0,0 +1,23 @@
+package network.holographics.api.holograms.enums;
+
+/**
+ * This enum contains the ways, in which holograms behind solid blocks are
+ * treated for a player.
+ *
+ * @see network.holographics.api.holograms.HologramManager#setOcclusionMode(OcclusionMode)
+ */
+public enum OcclusionMode {
+	/**
+	 * Occlusion is not checked.
+	 */
+	DISABLED,
+	/**
+	 * Occluded holograms stay visible, but don't receive animation frames
+	 * until they are in line of sight again.
+	 */
+	FREEZE,
+	/**
+	 * Occluded holograms are hidden until they are in line of sight again.
+	 */
+	HIDE
+}
@@ -0,0 +1,19 @@
+package network.holographics.api.holograms.enums;
+
+/**
+ * This enum contains the ways, in which holograms are selected for a player,
+ * when more holograms are in range than the player is allowed to see.
+ *
+ * @see network.holographics.api.holograms.HologramManager#setMaxVisibleHolograms(int)
+ */
+public enum VisibilityPriority {
+	/**
+	 * The nearest holograms are shown.
+	 */
+	NEAREST,
+	/**
+	 * Holograms are ordered by their distance divided by their priority plus
+	 * one, so holograms with a higher priority are shown from further away.
+	 */
+	WEIGHTED
+}
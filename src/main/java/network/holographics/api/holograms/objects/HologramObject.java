@@ -1,6 +1,7 @@
 package network.holographics.api.holograms.objects;
 
 import com.google.common.collect.ImmutableSet;
+import network.holographics.api.HolographicsInternalAPI;
 import network.holographics.api.holograms.DisableCause;
 import lombok.Getter;
 import lombok.NonNull;
@@ -118,7 +119,7 @@ public abstract class HologramObject extends FlagHolder {
         if (permission == null || permission.trim().isEmpty()) {
             return true;
         }
-        return player != null && player.hasPermission(permission);
+        return player != null && HolographicsInternalAPI.get().getPermissionCache().hasPermission(player, permission);
     }
 
     /*
@@ -0,0 +1,53 @@
+package network.holographics.api.holograms.objects;
+
+import lombok.Getter;
+
+/**
+ * A level of detail band of an {@link UpdatingHologramObject}. Viewers within
+ * the bands distance get the objects animations and placeholders refreshed
+ * at the bands own rates, so far away viewers can be updated less often
+ * than the ones standing right next to it.
+ *
+ * @see UpdatingHologramObject#setLodBands(java.util.List)
+ */
+@Getter
+public class LodBand {
+
+    private final double maxDistance;
+    private final int animationInterval;
+    private final int updateInterval;
+    private final boolean staticText;
+
+    /**
+     * Create a new level of detail band.
+     *
+     * @param maxDistance       Maximum distance of viewers in this band in blocks.
+     * @param animationInterval Interval between animation frames in ticks.
+     * @param updateInterval    Interval between placeholder refreshes in ticks.
+     * @param staticText        True to strip animations from the text for viewers in this band.
+     * @throws IllegalArgumentException If the distance is negative or any of the intervals isn't positive.
+     */
+    public LodBand(double maxDistance, int animationInterval, int updateInterval, boolean staticText) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Max distance of a LOD band cannot be negative!");
+        }
+        if (animationInterval < 1 || updateInterval < 1) {
+            throw new IllegalArgumentException("Intervals of a LOD band must be positive!");
+        }
+        this.maxDistance = maxDistance;
+        this.animationInterval = animationInterval;
+        this.updateInterval = updateInterval;
+        this.staticText = staticText;
+    }
+
+    /**
+     * Check whether a viewer with the given squared distance belongs to this band.
+     *
+     * @param distanceSquared The squared distance of the viewer.
+     * @return True if the viewer belongs to this band, false otherwise.
+     */
+    public boolean contains(double distanceSquared) {
+        return distanceSquared <= maxDistance * maxDistance;
+    }
+
+}
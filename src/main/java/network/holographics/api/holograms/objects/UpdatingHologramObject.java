@@ -5,6 +5,11 @@ import lombok.NonNull;
 import lombok.Setter;
 import org.bukkit.Location;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 @Getter
 @Setter
 public abstract class UpdatingHologramObject extends HologramObject {
@@ -17,6 +22,39 @@ public abstract class UpdatingHologramObject extends HologramObject {
     public int updateRange = 48;
     public volatile int updateInterval = 20;
 
+    /**
+     * Range in blocks, at which this object gets hidden again for players that
+     * can already see it. Having it larger than {@link #displayRange} prevents
+     * players standing right at the edge of the display range from getting the
+     * object spawned and destroyed over and over again.
+     * <p>
+     * Values lower than the display range (e.g. -1) mean that the display range
+     * is used for both, showing and hiding.
+     */
+    public int exitRange = -1;
+
+    /**
+     * Amount of ticks to look ahead when checking, whether a player is about to
+     * enter the display range. The players velocity is used to predict their
+     * position, so that this object can be spawned a few ticks before they
+     * actually reach it. Zero disables the look-ahead.
+     */
+    public int lookAheadTicks = 0;
+
+    /**
+     * Priority of this object, used when more objects are in range of a player
+     * than they are allowed to see and the {@code WEIGHTED} selection is used.
+     * Objects with a higher priority are preferred over nearer ones.
+     */
+    public int priority = 0;
+
+    /**
+     * Level of detail bands of this object, sorted by their distance. If empty,
+     * all viewers get animations every tick and placeholders refreshed every
+     * {@link #updateInterval} ticks.
+     */
+    private volatile @NonNull List<LodBand> lodBands = Collections.emptyList();
+
     /*
      *	Constructors
      */
@@ -25,4 +63,49 @@ public abstract class UpdatingHologramObject extends HologramObject {
         super(location);
     }
 
+    /*
+     *	General Methods
+     */
+
+    /**
+     * Get the range in blocks, at which this object gets hidden for its viewers.
+     *
+     * @return The exit range, never lower than the display range.
+     */
+    public int getExitRange() {
+        return Math.max(displayRange, exitRange);
+    }
+
+    /**
+     * Set the level of detail bands of this object. Viewers are assigned to the
+     * nearest band, that contains them. Viewers further away than all bands are
+     * assigned to the furthest band.
+     *
+     * @param lodBands The bands. An empty list disables level of detail.
+     */
+    public void setLodBands(@NonNull List<LodBand> lodBands) {
+        List<LodBand> sorted = new ArrayList<>(lodBands);
+        sorted.sort(Comparator.comparingDouble(LodBand::getMaxDistance));
+        this.lodBands = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Get the level of detail band for a viewer with the given squared distance.
+     *
+     * @param distanceSquared The squared distance of the viewer.
+     * @return The band or null if this object has no bands.
+     */
+    public LodBand getLodBand(double distanceSquared) {
+        List<LodBand> bands = this.lodBands;
+        if (bands.isEmpty()) {
+            return null;
+        }
+        for (LodBand band : bands) {
+            if (band.contains(distanceSquared)) {
+                return band;
+            }
+        }
+        return bands.get(bands.size() - 1);
+    }
+
 }
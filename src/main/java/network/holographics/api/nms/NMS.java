@@ -18,7 +18,10 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.lang.reflect.Field;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class NMS {
 
@@ -223,6 +226,17 @@ public abstract class NMS {
         }
     }
 
+    /**
+     * Channels, that packets were written to without flushing.
+     */
+    private final Set<Channel> pendingFlush = ConcurrentHashMap.newKeySet();
+    /**
+     * Whether the current thread is ticking an object of the ticker. Only
+     * packets sent during a tick are batched, all others are flushed right away.
+     */
+    private final ThreadLocal<Boolean> ticking = ThreadLocal.withInitial(() -> false);
+    private volatile boolean packetBatching = false;
+
     public Object getPlayerConnection(Player player) {
         Object entityPlayer = CRAFT_PLAYER_GET_HANDLE_METHOD.invoke(player);
         return ENTITY_PLAYER_CONNECTION_FIELD.getValue(entityPlayer);
@@ -231,14 +245,92 @@ public abstract class NMS {
     public void sendPacket(Player player, Object packet) {
         if (packet == null || !PACKET_CLASS.isAssignableFrom(packet.getClass())) return;
         Object playerConnection = getPlayerConnection(player);
+        if (packetBatching && ticking.get()) {
+            Channel channel = getChannel(playerConnection);
+            if (channel != null && channel.isActive()) {
+                // Flushed once per tick by flushPackets().
+                channel.write(packet, channel.voidPromise());
+                pendingFlush.add(channel);
+                return;
+            }
+        }
         PLAYER_CONNECTION_SEND_PACKET_METHOD.invoke(playerConnection, packet);
     }
 
+    /**
+     * Flush all channels, that packets were written to since the last flush.
+     * This is called by the ticker at the end of every tick.
+     */
+    public void flushPackets() {
+        Iterator<Channel> iterator = pendingFlush.iterator();
+        while (iterator.hasNext()) {
+            Channel channel = iterator.next();
+            iterator.remove();
+            if (channel.isOpen()) {
+                channel.flush();
+            }
+        }
+    }
+
+    /**
+     * Run the given tick work, batching the packets it sends, if packet batching
+     * is enabled. The packets are flushed by {@link #flushPackets()}.
+     *
+     * @param runnable The tick work.
+     */
+    public void runBatched(Runnable runnable) {
+        if (!packetBatching || ticking.get()) {
+            runnable.run();
+            return;
+        }
+        ticking.set(true);
+        try {
+            runnable.run();
+        } finally {
+            ticking.remove();
+        }
+    }
+
+    /**
+     * Forget the channel of the given player, so it isn't flushed anymore,
+     * e.g. after the player quit.
+     *
+     * @param player The player.
+     */
+    public void discardPendingFlush(Player player) {
+        Channel channel = getChannel(getPlayerConnection(player));
+        if (channel != null) {
+            pendingFlush.remove(channel);
+        }
+    }
+
+    public boolean isPacketBatching() {
+        return packetBatching;
+    }
+
+    /**
+     * Enable or disable packet batching. When enabled, packets sent while ticking
+     * objects of the ticker are written to the players channel without flushing
+     * and all channels are flushed once at the end of each tick, instead of
+     * flushing after every single packet. Packets sent outside of ticks, e.g. from
+     * listeners or async tasks, are always flushed right away.
+     *
+     * @param packetBatching True to enable packet batching, false otherwise.
+     */
+    public void setPacketBatching(boolean packetBatching) {
+        this.packetBatching = packetBatching;
+        if (!packetBatching) {
+            flushPackets();
+        }
+    }
+
     public ChannelPipeline getPipeline(Player player) {
-        Object playerConnection = getPlayerConnection(player);
+        return getChannel(getPlayerConnection(player)).pipeline();
+    }
+
+    private Channel getChannel(Object playerConnection) {
         Object networkManager = PLAYER_CONNECTION_NETWORK_MANAGER_FIELD.getValue(playerConnection);
-        Channel channel = (Channel) NETWORK_MANAGER_CHANNEL_FIELD.getValue(networkManager);
-        return channel.pipeline();
+        return (Channel) NETWORK_MANAGER_CHANNEL_FIELD.getValue(networkManager);
     }
 
     public int getEntityTypeId(EntityType type) {
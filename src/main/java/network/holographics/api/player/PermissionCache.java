@@ -0,0 +1,135 @@
+package network.holographics.api.player;
+
+import lombok.NonNull;
+import network.holographics.api.utils.tick.Ticked;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class caches the results of permission checks done by holograms and
+ * their lines. Permission lookups can be expensive with some permission plugins
+ * and visibility is checked for every hologram, line and player very often.
+ * <p>
+ * Cached decisions of a player expire after the configured time to live and
+ * expired entries are evicted periodically. They are also dropped when the player
+ * joins or quits and when {@link #invalidate(Player)} is called, e.g. from
+ * a permission change event.
+ */
+public class PermissionCache extends Ticked {
+
+    private final @NonNull Map<UUID, Entry> entries;
+    private volatile long timeToLive;
+
+    public PermissionCache() {
+        super(100L);
+        this.entries = new ConcurrentHashMap<>();
+        this.timeToLive = 5000L;
+        this.register();
+    }
+
+    /**
+     * Evict the entries, that have expired.
+     */
+    @Override
+    public void tick() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+
+    /**
+     * Stop evicting entries and forget all cached decisions.
+     */
+    public void destroy() {
+        this.unregister();
+        this.invalidateAll();
+    }
+
+    /**
+     * Check whether the given player has the given permission. The result is
+     * taken from the cache if possible.
+     *
+     * @param player     The player.
+     * @param permission The permission.
+     * @return True if the player has the permission, false otherwise.
+     */
+    public boolean hasPermission(@NonNull Player player, @NonNull String permission) {
+        long ttl = timeToLive;
+        if (ttl <= 0 || !player.isOnline()) {
+            // Decisions of players, that have quit, would never be invalidated.
+            return player.hasPermission(permission);
+        }
+
+        long now = System.currentTimeMillis();
+        UUID uniqueId = player.getUniqueId();
+        Entry entry = entries.get(uniqueId);
+        if (entry == null || entry.expiresAt < now) {
+            entry = new Entry(now + ttl);
+            entries.put(uniqueId, entry);
+        }
+
+        Boolean result = entry.decisions.get(permission);
+        if (result == null) {
+            result = player.hasPermission(permission);
+            entry.decisions.put(permission, result);
+        }
+        return result;
+    }
+
+    /**
+     * Forget all cached decisions of the given player.
+     *
+     * @param player The player.
+     */
+    public void invalidate(@NonNull Player player) {
+        invalidate(player.getUniqueId());
+    }
+
+    /**
+     * Forget all cached decisions of the player with the given UUID.
+     *
+     * @param uniqueId UUID of the player.
+     */
+    public void invalidate(@NonNull UUID uniqueId) {
+        entries.remove(uniqueId);
+    }
+
+    /**
+     * Forget all cached decisions.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Set the time, after which cached decisions of a player expire.
+     *
+     * @param timeToLive Time to live in milliseconds. Zero or less disables the cache.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        if (timeToLive <= 0) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Cached decisions of a single player.
+     */
+    private static final class Entry {
+
+        private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+        private final long expiresAt;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
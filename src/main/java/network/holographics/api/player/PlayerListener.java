@@ -2,7 +2,9 @@ package network.holographics.api.player;
 
 import network.holographics.api.HolographicsInternal;
 import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.nms.NMS;
 import network.holographics.api.utils.scheduler.S;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -19,6 +21,7 @@ public class PlayerListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void onJoin(PlayerJoinEvent e) {
         Player player = e.getPlayer();
+        DH.getPermissionCache().invalidate(player);
         S.async(() -> DH.getHologramManager().updateVisibility(player));
         S.sync(() -> DH.getPacketListener().hook(player));
     }
@@ -26,20 +29,41 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onQuit(PlayerQuitEvent e) {
         Player player = e.getPlayer();
-        S.async(() -> DH.getHologramManager().onQuit(player));
+        // Checks done while tearing down the viewer state could cache decisions again, so invalidate afterwards.
+        S.async(() -> {
+            DH.getHologramManager().onQuit(player);
+            DH.getPermissionCache().invalidate(player);
+        });
         DH.getPacketListener().unhook(player);
+        NMS.getInstance().discardPendingFlush(player);
     }
 
     @EventHandler
     public void onRespawn(PlayerRespawnEvent e) {
         Player player = e.getPlayer();
-        S.async(() -> DH.getHologramManager().updateVisibility(player));
+        S.async(() -> {
+            DH.getPlayerSnapshotManager().invalidate(player);
+            DH.getHologramManager().updateVisibility(player);
+        });
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onTeleport(PlayerTeleportEvent e) {
         Player player = e.getPlayer();
-        S.async(() -> DH.getHologramManager().updateVisibility(player));
+        Location to = e.getTo();
+        PlayerSnapshot destination = to == null ? null : PlayerSnapshot.of(player, to);
+        if (destination == null) {
+            S.async(() -> {
+                DH.getPlayerSnapshotManager().invalidate(player);
+                DH.getHologramManager().updateVisibility(player);
+            }, 1L);
+            return;
+        }
+        // The teleport is applied right after this event, so range checks can use the destination already.
+        DH.getPlayerSnapshotManager().update(player, destination);
+        // Computed before the teleport is applied, so it only has to be sent once the player arrives.
+        DH.getHologramManager().prefetchVisibility(player, destination);
+        S.async(() -> DH.getHologramManager().applyPrefetchedVisibility(player));
     }
 
 }
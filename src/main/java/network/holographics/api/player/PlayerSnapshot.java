@@ -0,0 +1,192 @@
+package network.holographics.api.player;
+
+import lombok.Getter;
+import lombok.NonNull;
+import network.holographics.api.utils.objects.Ray;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a players position, captured once per tick by the
+ * {@link PlayerSnapshotManager}. All range checks during a tick read from
+ * the snapshot, so they don't have to allocate a new {@link Location} or
+ * deal with exceptions thrown by unloaded worlds.
+ */
+@Getter
+public final class PlayerSnapshot {
+
+    /**
+     * Height of the players eyes above their feet in blocks.
+     */
+    public static final double EYE_HEIGHT = 1.62d;
+    /**
+     * Per-player view distance, only available on some forks (e.g. Paper).
+     */
+    private static final Method GET_VIEW_DISTANCE_METHOD = findViewDistanceMethod();
+    /**
+     * View distance of the server, last read on the main thread.
+     */
+    private static volatile int serverViewDistance = 10;
+
+    private final @NonNull UUID uniqueId;
+    private final @NonNull World world;
+    private final @NonNull UUID worldId;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float yaw;
+    private final float pitch;
+    private final double directionX;
+    private final double directionY;
+    private final double directionZ;
+    private final int viewDistance;
+
+    public PlayerSnapshot(@NonNull UUID uniqueId, @NonNull World world, double x, double y, double z, float yaw, float pitch, int viewDistance) {
+        this.uniqueId = uniqueId;
+        this.world = world;
+        this.worldId = world.getUID();
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        double yawRadians = Math.toRadians(yaw);
+        double pitchRadians = Math.toRadians(pitch);
+        double horizontal = Math.cos(pitchRadians);
+        this.directionX = -horizontal * Math.sin(yawRadians);
+        this.directionY = -Math.sin(pitchRadians);
+        this.directionZ = horizontal * Math.cos(yawRadians);
+        this.viewDistance = viewDistance;
+    }
+
+    /**
+     * Capture the current position of the given player.
+     *
+     * @param player The player.
+     * @return The snapshot or null if the players world isn't available.
+     */
+    public static PlayerSnapshot of(@NonNull Player player) {
+        /*
+         * Some forks (e.g. Pufferfish) throw an exception, when we try to get
+         * the world of a location, which is not loaded. There is nothing to
+         * capture in that case.
+         */
+        try {
+            Location location = player.getLocation();
+            World world = location.getWorld();
+            if (world != null) {
+                return new PlayerSnapshot(player.getUniqueId(), world, location.getX(), location.getY(), location.getZ(),
+                        location.getYaw(), location.getPitch(), getViewDistance(player));
+            }
+        } catch (Exception ignored) {
+            // Ignored
+        }
+        return null;
+    }
+
+    /**
+     * Create a snapshot of the given player at the given location, e.g. the
+     * destination of a teleport.
+     *
+     * @param player   The player.
+     * @param location The location.
+     * @return The snapshot or null if the world of the location isn't available.
+     */
+    public static PlayerSnapshot of(@NonNull Player player, @NonNull Location location) {
+        try {
+            World world = location.getWorld();
+            if (world != null) {
+                return new PlayerSnapshot(player.getUniqueId(), world, location.getX(), location.getY(), location.getZ(),
+                        location.getYaw(), location.getPitch(), getViewDistance(player));
+            }
+        } catch (Exception ignored) {
+            // Ignored
+        }
+        return null;
+    }
+
+    /**
+     * Get the view distance of the given player in chunks. It's only read on the
+     * main thread, async callers get the view distance of the server, that was
+     * read last.
+     *
+     * @param player The player.
+     * @return The view distance.
+     */
+    private static int getViewDistance(@NonNull Player player) {
+        if (!Bukkit.isPrimaryThread()) {
+            return serverViewDistance;
+        }
+        serverViewDistance = Bukkit.getViewDistance();
+        if (GET_VIEW_DISTANCE_METHOD != null) {
+            try {
+                return (int) GET_VIEW_DISTANCE_METHOD.invoke(player);
+            } catch (Exception ignored) {
+                // Ignored
+            }
+        }
+        return serverViewDistance;
+    }
+
+    private static Method findViewDistanceMethod() {
+        try {
+            return Player.class.getMethod("getViewDistance");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether this snapshot was taken in the world with the given UID.
+     *
+     * @param worldId UID of the world.
+     * @return True if the player was in the given world, false otherwise.
+     */
+    public boolean isIn(UUID worldId) {
+        return this.worldId.equals(worldId);
+    }
+
+    /**
+     * Get the squared distance between this snapshot and the given coordinates.
+     *
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @return The squared distance.
+     */
+    public double distanceSquared(double x, double y, double z) {
+        double dx = this.x - x;
+        double dy = this.y - y;
+        double dz = this.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Check whether the given point is inside the view cone of the player.
+     *
+     * @param x            X coordinate of the point.
+     * @param y            Y coordinate of the point.
+     * @param z            Z coordinate of the point.
+     * @param cosHalfAngle Cosine of half the opening angle of the view cone.
+     * @return True if the point is in view, false otherwise.
+     */
+    public boolean isInViewCone(double x, double y, double z, double cosHalfAngle) {
+        return Ray.isWithinCone(this.x, this.y + EYE_HEIGHT, this.z, directionX, directionY, directionZ, x, y, z, cosHalfAngle);
+    }
+
+    /**
+     * Create a new {@link Location} at the position of this snapshot.
+     *
+     * @return The location.
+     */
+    @NonNull
+    public Location toLocation() {
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+
+}
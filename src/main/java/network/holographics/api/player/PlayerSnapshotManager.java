@@ -0,0 +1,100 @@
+package network.holographics.api.player;
+
+import lombok.NonNull;
+import network.holographics.api.utils.scheduler.S;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class captures a {@link PlayerSnapshot} of every online player once
+ * per tick on the main thread. The snapshots are then shared by all range
+ * checks done during that tick, no matter which thread they run on.
+ */
+public class PlayerSnapshotManager {
+
+    private final int taskId;
+    private volatile @NonNull Map<UUID, PlayerSnapshot> snapshots;
+
+    public PlayerSnapshotManager() {
+        this.snapshots = new ConcurrentHashMap<>();
+        this.taskId = S.syncTask(this::capture, 1L).getTaskId();
+    }
+
+    /**
+     * Stop capturing snapshots and forget all captured snapshots.
+     */
+    public void destroy() {
+        S.stopTask(taskId);
+        snapshots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Capture a new snapshot of all online players.
+     */
+    public void capture() {
+        Map<UUID, PlayerSnapshot> captured = new ConcurrentHashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerSnapshot snapshot = PlayerSnapshot.of(player);
+            if (snapshot != null) {
+                captured.put(player.getUniqueId(), snapshot);
+            }
+        }
+        snapshots = captured;
+    }
+
+    /**
+     * Get the snapshot of the given player from the current tick. If the player
+     * hasn't been captured yet (e.g. they just joined), their snapshot is captured
+     * right away.
+     *
+     * @param player The player.
+     * @return The snapshot or null if the players world isn't available.
+     */
+    public PlayerSnapshot get(@NonNull Player player) {
+        Map<UUID, PlayerSnapshot> current = snapshots;
+        PlayerSnapshot snapshot = current.get(player.getUniqueId());
+        if (snapshot == null) {
+            snapshot = PlayerSnapshot.of(player);
+            if (snapshot != null) {
+                current.putIfAbsent(player.getUniqueId(), snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the snapshot of the player with the given UUID from the current tick.
+     *
+     * @param uniqueId UUID of the player.
+     * @return The snapshot or null if the player hasn't been captured.
+     */
+    public PlayerSnapshot get(@NonNull UUID uniqueId) {
+        return snapshots.get(uniqueId);
+    }
+
+    /**
+     * Replace the snapshot of the given player until the next capture, e.g. with
+     * their destination right before a teleport is applied.
+     *
+     * @param player   The player.
+     * @param snapshot The new snapshot.
+     */
+    public void update(@NonNull Player player, @NonNull PlayerSnapshot snapshot) {
+        snapshots.put(player.getUniqueId(), snapshot);
+    }
+
+    /**
+     * Forget the snapshot of the given player. Used when the players position
+     * changes abruptly, like on a teleport, so it gets captured again.
+     *
+     * @param player The player.
+     */
+    public void invalidate(@NonNull Player player) {
+        snapshots.remove(player.getUniqueId());
+    }
+
+}
@@ -0,0 +1,394 @@
+package network.holographics.api.player;
+
+import lombok.NonNull;
+import network.holographics.api.holograms.Hologram;
+import network.holographics.api.holograms.HologramGrid;
+import network.holographics.api.holograms.HologramLine;
+import network.holographics.api.holograms.VisibilityDiff;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class holds the visibility related state of a single player. It
+ * remembers where the player was, when their visibility was last evaluated,
+ * and which holograms were in range at that moment.
+ * <p>
+ * It's also a reverse index of the holograms and lines, that are visible to
+ * the player, and of the holograms, that hold other per-player state (a show
+ * or hide state or the page the player was shown). The index is maintained by the holograms and lines themselves,
+ * so per-player operations like quitting only touch what the player has seen.
+ * <p>
+ * It's used by the incremental visibility mode to skip players that haven't
+ * moved and to compute which holograms entered or left their view. It also
+ * estimates the players velocity, which is used for the display range look-ahead.
+ *
+ * @see network.holographics.api.holograms.HologramManager#setIncrementalVisibility(boolean)
+ */
+public class ViewerState {
+
+    /**
+     * Speed in blocks per tick, above which a movement sample is considered
+     * a teleport and not used to estimate the players velocity.
+     */
+    private static final double MAX_SPEED = 4.0d;
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    private final @NonNull UUID uniqueId;
+    private volatile UUID world;
+    private volatile double x;
+    private volatile double y;
+    private volatile double z;
+    private volatile long version;
+    private volatile @NonNull Set<Hologram> holograms;
+    private volatile UUID sampleWorld;
+    private volatile double sampleX;
+    private volatile double sampleY;
+    private volatile double sampleZ;
+    private volatile long sampleTime;
+    private volatile double velocityX;
+    private volatile double velocityY;
+    private volatile double velocityZ;
+    private final @NonNull Set<Hologram> visibleHolograms;
+    private final @NonNull Set<HologramLine> visibleLines;
+    private final @NonNull Set<Hologram> stateHolograms;
+    private final @NonNull Set<Hologram> occludedHolograms;
+    private final @NonNull Set<Hologram> spawnQueue;
+    private volatile VisibilityDiff prefetchedDiff;
+
+    public ViewerState(@NonNull UUID uniqueId) {
+        this.uniqueId = uniqueId;
+        this.world = null;
+        this.version = -1L;
+        this.holograms = Collections.emptySet();
+        this.visibleHolograms = ConcurrentHashMap.newKeySet();
+        this.visibleLines = ConcurrentHashMap.newKeySet();
+        this.stateHolograms = ConcurrentHashMap.newKeySet();
+        this.occludedHolograms = ConcurrentHashMap.newKeySet();
+        this.spawnQueue = new LinkedHashSet<>();
+    }
+
+    /**
+     * Check whether the visibility of this player needs to be evaluated again.
+     * That is the case if the player changed worlds, crossed a cell boundary,
+     * moved further than the given threshold or the holograms changed since
+     * the last evaluation.
+     *
+     * @param world     UID of the players current world.
+     * @param x         Current X coordinate of the player.
+     * @param y         Current Y coordinate of the player.
+     * @param z         Current Z coordinate of the player.
+     * @param threshold The movement threshold in blocks.
+     * @param version   The current visibility version.
+     * @return True if the visibility should be evaluated, false otherwise.
+     */
+    public boolean needsUpdate(@NonNull UUID world, double x, double y, double z, double threshold, long version) {
+        if (this.version != version || !world.equals(this.world)) {
+            return true;
+        }
+        if (HologramGrid.toCell(x) != HologramGrid.toCell(this.x) || HologramGrid.toCell(z) != HologramGrid.toCell(this.z)) {
+            return true;
+        }
+        double dx = x - this.x;
+        double dy = y - this.y;
+        double dz = z - this.z;
+        return dx * dx + dy * dy + dz * dz >= threshold * threshold;
+    }
+
+    /**
+     * Remember the result of an evaluation.
+     *
+     * @param world     UID of the world the player was evaluated in.
+     * @param x         X coordinate the player was evaluated at.
+     * @param y         Y coordinate the player was evaluated at.
+     * @param z         Z coordinate the player was evaluated at.
+     * @param holograms Holograms that were in range of the player.
+     * @param version   The visibility version the evaluation was based on.
+     */
+    public void update(@NonNull UUID world, double x, double y, double z, @NonNull Set<Hologram> holograms, long version) {
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.holograms = Collections.unmodifiableSet(holograms);
+        this.version = version;
+    }
+
+    /**
+     * Forget the version of the last evaluation, so the next check of
+     * {@link #needsUpdate(UUID, double, double, double, double, long)} is positive.
+     */
+    public void invalidate() {
+        this.version = -1L;
+    }
+
+    /**
+     * Record the current position of the player, to estimate their velocity.
+     * Samples taken less than half a tick apart are ignored.
+     *
+     * @param world UID of the players current world.
+     * @param x     Current X coordinate of the player.
+     * @param y     Current Y coordinate of the player.
+     * @param z     Current Z coordinate of the player.
+     * @param time  Current time in nanoseconds.
+     */
+    public void sample(@NonNull UUID world, double x, double y, double z, long time) {
+        if (world.equals(sampleWorld)) {
+            long elapsed = time - sampleTime;
+            if (elapsed < NANOS_PER_TICK / 2) {
+                return;
+            }
+            double ticks = (double) elapsed / NANOS_PER_TICK;
+            double vx = (x - sampleX) / ticks;
+            double vy = (y - sampleY) / ticks;
+            double vz = (z - sampleZ) / ticks;
+            if (vx * vx + vy * vy + vz * vz <= MAX_SPEED * MAX_SPEED) {
+                velocityX = vx;
+                velocityY = vy;
+                velocityZ = vz;
+            } else {
+                velocityX = velocityY = velocityZ = 0.0d;
+            }
+        } else {
+            velocityX = velocityY = velocityZ = 0.0d;
+        }
+        sampleWorld = world;
+        sampleX = x;
+        sampleY = y;
+        sampleZ = z;
+        sampleTime = time;
+    }
+
+    /**
+     * Get the estimated velocity of the player along the X axis.
+     *
+     * @return The velocity in blocks per tick.
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Get the estimated velocity of the player along the Y axis.
+     *
+     * @return The velocity in blocks per tick.
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Get the estimated velocity of the player along the Z axis.
+     *
+     * @return The velocity in blocks per tick.
+     */
+    public double getVelocityZ() {
+        return velocityZ;
+    }
+
+    /**
+     * Get the estimated horizontal speed of the player.
+     *
+     * @return The speed in blocks per tick.
+     */
+    public double getHorizontalSpeed() {
+        return Math.sqrt(velocityX * velocityX + velocityZ * velocityZ);
+    }
+
+    /**
+     * Get the number of holograms currently visible to this player.
+     *
+     * @return The number of visible holograms.
+     */
+    public int getVisibleCount() {
+        return visibleHolograms.size();
+    }
+
+    public void addVisibleHologram(@NonNull Hologram hologram) {
+        visibleHolograms.add(hologram);
+    }
+
+    public void removeVisibleHologram(@NonNull Hologram hologram) {
+        visibleHolograms.remove(hologram);
+    }
+
+    /**
+     * Get the holograms currently visible to this player.
+     *
+     * @return Unmodifiable view of the visible holograms.
+     */
+    @NonNull
+    public Set<Hologram> getVisibleHolograms() {
+        return Collections.unmodifiableSet(visibleHolograms);
+    }
+
+    public void addVisibleLine(@NonNull HologramLine line) {
+        visibleLines.add(line);
+    }
+
+    public void removeVisibleLine(@NonNull HologramLine line) {
+        visibleLines.remove(line);
+    }
+
+    /**
+     * Get the lines currently visible to this player, including temporary lines
+     * and lines of holograms.
+     *
+     * @return Unmodifiable view of the visible lines.
+     */
+    @NonNull
+    public Set<HologramLine> getVisibleLines() {
+        return Collections.unmodifiableSet(visibleLines);
+    }
+
+    public void addStateHologram(@NonNull Hologram hologram) {
+        stateHolograms.add(hologram);
+    }
+
+    public void removeStateHologram(@NonNull Hologram hologram) {
+        stateHolograms.remove(hologram);
+    }
+
+    /**
+     * Get the holograms, that have a show or hide state set for this player or
+     * remember the page, that was last shown to them.
+     *
+     * @return Unmodifiable view of the holograms.
+     */
+    @NonNull
+    public Set<Hologram> getStateHolograms() {
+        return Collections.unmodifiableSet(stateHolograms);
+    }
+
+    /**
+     * Remember whether the given hologram is hidden behind solid blocks for this player.
+     *
+     * @param hologram The hologram.
+     * @param occluded True if the hologram is occluded, false otherwise.
+     * @return True if the state changed, false otherwise.
+     */
+    public boolean setOccluded(@NonNull Hologram hologram, boolean occluded) {
+        return occluded ? occludedHolograms.add(hologram) : occludedHolograms.remove(hologram);
+    }
+
+    /**
+     * Check whether the given hologram was hidden behind solid blocks for this
+     * player, when their line of sight was last checked.
+     *
+     * @param hologram The hologram.
+     * @return True if the hologram is occluded, false otherwise.
+     */
+    public boolean isOccluded(@NonNull Hologram hologram) {
+        return occludedHolograms.contains(hologram);
+    }
+
+    /**
+     * Forget the occlusion of all holograms, that aren't in the given collection.
+     *
+     * @param holograms The holograms to keep.
+     */
+    public void retainOccluded(@NonNull Collection<Hologram> holograms) {
+        occludedHolograms.retainAll(holograms);
+    }
+
+    /**
+     * Forget the occlusion of all holograms.
+     */
+    public void clearOccluded() {
+        occludedHolograms.clear();
+    }
+
+    /**
+     * Replace the holograms waiting to be spawned for this player.
+     *
+     * @param holograms The holograms, in the order they should be spawned.
+     */
+    public void setSpawnQueue(@NonNull Collection<Hologram> holograms) {
+        synchronized (spawnQueue) {
+            spawnQueue.clear();
+            spawnQueue.addAll(holograms);
+        }
+    }
+
+    /**
+     * Take the next hologram waiting to be spawned for this player.
+     *
+     * @return The hologram or null if there are no holograms waiting.
+     */
+    public Hologram pollSpawnQueue() {
+        synchronized (spawnQueue) {
+            Iterator<Hologram> iterator = spawnQueue.iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Hologram hologram = iterator.next();
+            iterator.remove();
+            return hologram;
+        }
+    }
+
+    /**
+     * Check whether the given hologram is waiting to be spawned for this player.
+     *
+     * @param hologram The hologram.
+     * @return True if the hologram is queued, false otherwise.
+     */
+    public boolean isSpawnQueued(@NonNull Hologram hologram) {
+        synchronized (spawnQueue) {
+            return spawnQueue.contains(hologram);
+        }
+    }
+
+    /**
+     * Get the number of holograms waiting to be spawned for this player.
+     *
+     * @return The number of queued holograms.
+     */
+    public int getSpawnQueueSize() {
+        synchronized (spawnQueue) {
+            return spawnQueue.size();
+        }
+    }
+
+    /**
+     * Remember a diff, that was computed in advance, e.g. for the destination
+     * of a teleport.
+     *
+     * @param diff The diff.
+     */
+    public void setPrefetchedDiff(VisibilityDiff diff) {
+        this.prefetchedDiff = diff;
+    }
+
+    /**
+     * Take the diff, that was computed in advance. The diff is forgotten.
+     *
+     * @return The diff or null if there is none.
+     */
+    public VisibilityDiff takePrefetchedDiff() {
+        VisibilityDiff diff = prefetchedDiff;
+        prefetchedDiff = null;
+        return diff;
+    }
+
+    @NonNull
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    /**
+     * Get the holograms, that were in range of this player at the last evaluation.
+     *
+     * @return Unmodifiable set of the holograms.
+     */
+    @NonNull
+    public Set<Hologram> getHolograms() {
+        return holograms;
+    }
+
+}
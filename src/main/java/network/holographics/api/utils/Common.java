@@ -91,6 +91,17 @@ public class Common {
 		log(level, String.format(message, args));
 	}
 
+	/**
+	 * Log a message into console together with the stack trace of the given throwable.
+	 *
+	 * @param level     Level of this message.
+	 * @param message   The message.
+	 * @param throwable The throwable.
+	 */
+	public static void log(Level level, String message, Throwable throwable) {
+		Bukkit.getServer().getLogger().log(level, "[Holographics] " + message, throwable);
+	}
+
 	/*
 	 * 	Tell
 	 */
@@ -4,16 +4,47 @@ import network.holographics.api.utils.collection.DList;
 import lombok.NonNull;
 import org.jetbrains.annotations.Contract;
 
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class DExecutor {
 
+    /**
+     * Amount of chunks, work passed to {@link #forEach(List, int, Consumer)} is
+     * split into per thread. More chunks than threads let idle threads steal work
+     * from busy ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
     private static boolean initialized = false;
-    private static ExecutorService service;
+    private static ForkJoinPool service;
+    private static ExecutorService blockingService;
+    private static int threads = 0;
+    private static int configuredThreads = 3;
+    private static int blockingThreads = 4;
+    private static boolean virtualThreadsRequested = false;
+    private static boolean virtualThreads = false;
+
+    /**
+     * Initialize DExecutor with the configured amount of threads.
+     *
+     * @see #setConfiguredThreads(int)
+     * @see #setBlockingThreads(int)
+     * @see #setVirtualThreadsRequested(boolean)
+     */
+    public static void init() {
+        init(configuredThreads);
+    }
 
     /**
      * Initialize DExecutor. This method will set up ExecutorService for Holographics.
@@ -22,20 +53,116 @@ public class DExecutor {
      */
     public static void init(int threads) {
         if (!initialized) {
+            DExecutor.threads = threads;
             AtomicInteger threadId = new AtomicInteger(0);
-            service = Executors.newFixedThreadPool(threads, runnable -> {
-                Thread thread = new Thread(runnable);
+            service = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
                 thread.setName("Holographics Thread #" + threadId.incrementAndGet());
                 thread.setPriority(Thread.NORM_PRIORITY);
                 thread.setDaemon(true);
-                thread.setUncaughtExceptionHandler((t, ex) -> {
-                    Common.log("Exception encountered in " + t.getName());
-                    ex.printStackTrace();
-                });
                 return thread;
-            });
+            }, (t, ex) -> {
+                Common.log("Exception encountered in " + t.getName());
+                ex.printStackTrace();
+            }, false);
+            blockingService = virtualThreadsRequested ? createVirtualThreadExecutor() : null;
+            virtualThreads = blockingService != null;
+            if (!virtualThreads) {
+                AtomicInteger blockingThreadId = new AtomicInteger(0);
+                blockingService = Executors.newFixedThreadPool(blockingThreads, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setName("Holographics Blocking Thread #" + blockingThreadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
             initialized = true;
+            Common.log("Using %d threads for ticking and %s for blocking work.", threads,
+                    virtualThreads ? "virtual threads" : blockingThreads + " threads");
+        }
+    }
+
+    /**
+     * Create an executor, that runs each task on a new virtual thread. Virtual
+     * threads are only available on Java 21 and newer, so they are looked up
+     * reflectively.
+     *
+     * @return The executor or null if virtual threads aren't available.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Holographics Virtual Thread #", 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Common.log("Virtual threads are not available, falling back to platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * Get the amount of threads of the ExecutorService.
+     *
+     * @return The amount of threads or 0 if the service is not initialized.
+     */
+    public static int getThreads() {
+        return initialized ? threads : 0;
+    }
+
+    /**
+     * Get the amount of threads used for blocking work.
+     *
+     * @return The amount of threads, 0 if the service is not initialized or -1
+     * if blocking work runs on virtual threads.
+     */
+    public static int getBlockingThreads() {
+        if (!initialized) {
+            return 0;
         }
+        return virtualThreads ? -1 : blockingThreads;
+    }
+
+    /**
+     * Check whether blocking work runs on virtual threads.
+     *
+     * @return True if virtual threads are used, false otherwise.
+     */
+    public static boolean isVirtualThreads() {
+        return initialized && virtualThreads;
+    }
+
+    /**
+     * Set the amount of threads used by {@link #init()} for CPU-bound work like
+     * ticking. Takes effect the next time DExecutor is initialized.
+     *
+     * @param threads The amount of threads.
+     */
+    public static void setConfiguredThreads(int threads) {
+        DExecutor.configuredThreads = Math.max(1, threads);
+    }
+
+    /**
+     * Set the amount of platform threads used for blocking work, if virtual
+     * threads aren't used. Takes effect the next time DExecutor is initialized.
+     *
+     * @param threads The amount of threads.
+     */
+    public static void setBlockingThreads(int threads) {
+        DExecutor.blockingThreads = Math.max(1, threads);
+    }
+
+    /**
+     * Set whether blocking work, like placeholder resolution, file I/O and skull
+     * texture lookups, should run on virtual threads. Requires Java 21, otherwise
+     * platform threads are used. Takes effect the next time DExecutor is initialized.
+     *
+     * @param virtualThreads True to use virtual threads, false otherwise.
+     */
+    public static void setVirtualThreadsRequested(boolean virtualThreads) {
+        DExecutor.virtualThreadsRequested = virtualThreads;
     }
 
     /**
@@ -43,6 +170,7 @@ public class DExecutor {
      */
     public static void shutdown() {
         service.shutdown();
+        blockingService.shutdown();
         initialized = false;
     }
 
@@ -51,6 +179,7 @@ public class DExecutor {
      */
     public static void shutdownNow() {
         service.shutdownNow();
+        blockingService.shutdownNow();
         initialized = false;
     }
 
@@ -85,6 +214,30 @@ public class DExecutor {
         return new DExecutor(service, estimate);
     }
 
+    /**
+     * Run the given action for each of the given elements in parallel and wait
+     * until all elements have been processed.
+     * <p>
+     * The elements are split into chunked ranges, which are processed by the
+     * work-stealing pool without allocating anything per element. The calling
+     * thread only blocks; if it's a thread of the pool itself, it helps with
+     * the work instead, so nested calls can't starve the pool.
+     *
+     * @param elements The elements. Should support fast random access.
+     * @param minChunk The minimum amount of elements processed as one chunk.
+     * @param action   The action.
+     */
+    public static <T> void forEach(@NonNull List<T> elements, int minChunk, @NonNull Consumer<? super T> action) {
+        int size = elements.size();
+        int threads = getThreads();
+        if (threads <= 1 || size <= minChunk) {
+            elements.forEach(action);
+            return;
+        }
+        int chunk = Math.max(Math.max(1, minChunk), size / (threads * CHUNKS_PER_THREAD));
+        service.invoke(new RangeAction<>(elements, 0, size, chunk, action));
+    }
+
     /**
      * Execute a runnable using the ExecutorService.
      *
@@ -94,6 +247,20 @@ public class DExecutor {
         service.execute(runnable);
     }
 
+    /**
+     * Execute a runnable, that may block, e.g. on I/O. It runs on a virtual thread
+     * if enabled, otherwise on a separate pool, so it doesn't hold up ticking.
+     *
+     * @param runnable The runnable.
+     * @throws IllegalStateException If the service is not initialized.
+     */
+    public static void executeBlocking(@NonNull Runnable runnable) {
+        if (!initialized) {
+            throw new IllegalStateException("DExecutor is not initialized!");
+        }
+        blockingService.execute(runnable);
+    }
+
     private final @NonNull ExecutorService executor;
     private final @NonNull DList<CompletableFuture<Void>> running;
 
@@ -150,4 +317,38 @@ public class DExecutor {
         }
     }
 
+    /**
+     * Range of elements, that is split in halves until it's small enough
+     * to be processed directly.
+     */
+    private static final class RangeAction<T> extends RecursiveAction {
+
+        private final List<T> elements;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final Consumer<? super T> action;
+
+        private RangeAction(List<T> elements, int from, int to, int chunk, Consumer<? super T> action) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++) {
+                    action.accept(elements.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction<>(elements, from, middle, chunk, action),
+                    new RangeAction<>(elements, middle, to, chunk, action));
+        }
+    }
+
 }
@@ -2,6 +2,8 @@ package network.holographics.api.utils;
 
 import lombok.experimental.UtilityClass;
 import me.arcaniax.hdb.api.HeadDatabaseAPI;
+import network.holographics.api.utils.collection.LookupCache;
+import network.holographics.api.utils.scheduler.S;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
@@ -9,9 +11,27 @@ import org.jetbrains.annotations.Nullable;
 public final class HeadDatabaseUtils {
 
     public static final HeadDatabaseAPI API = new HeadDatabaseAPI();
+    /**
+     * Heads by their ids. Failed lookups are retried after a minute, e.g. when
+     * HeadDatabase hasn't loaded its heads yet.
+     */
+    private static final LookupCache<String, ItemStack> HEAD_CACHE = new LookupCache<>(512, 60_000L);
 
     @Nullable
     public static ItemStack getHeadItemStackById(String id) {
         return API.getItemHead(id);
     }
+
+    /**
+     * Get the head with the given id, if it was already looked up. Otherwise, it's
+     * looked up in the background using {@link S#blocking(Runnable)}.
+     *
+     * @param id The id of the head.
+     * @return Copy of the head or null if it isn't looked up yet or doesn't exist.
+     */
+    @Nullable
+    public static ItemStack getCachedHeadItemStackById(String id) {
+        ItemStack head = HEAD_CACHE.get(id, HeadDatabaseUtils::getHeadItemStackById);
+        return head == null ? null : head.clone();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package network.holographics.api.utils.collection;
+
+import lombok.NonNull;
+import network.holographics.api.utils.scheduler.S;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of values, that are looked up in the background using {@link S#blocking(Runnable)},
+ * e.g. by a web request, so the calling thread never waits for the lookup.
+ * <p>
+ * Found values are kept until the cache is full, then the least recently used
+ * ones are evicted. Failed lookups are only remembered for a short time, so they
+ * are retried later instead of failing forever.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public final class LookupCache<K, V> {
+
+    private final int maxSize;
+    private final long failureTtlMillis;
+    private final @NonNull Map<K, V> values;
+    private final @NonNull Map<K, Long> failures;
+    private final @NonNull Set<K> pending;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxSize          The maximum amount of cached values and failures.
+     * @param failureTtlMillis The time, after which failed lookups are retried, in milliseconds.
+     */
+    public LookupCache(int maxSize, long failureTtlMillis) {
+        this.maxSize = Math.max(1, maxSize);
+        this.failureTtlMillis = failureTtlMillis;
+        this.values = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LookupCache.this.maxSize;
+            }
+        };
+        this.failures = new ConcurrentHashMap<>();
+        this.pending = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Get the value of the given key, if it was already looked up. Otherwise,
+     * it's looked up in the background, unless the last lookup failed recently.
+     *
+     * @param key    The key.
+     * @param lookup The lookup, returning null if there is no value.
+     * @return The value or null if it isn't looked up yet or couldn't be found.
+     */
+    @Nullable
+    public V get(@NonNull K key, @NonNull Function<K, V> lookup) {
+        V value;
+        synchronized (values) {
+            value = values.get(key);
+        }
+        if (value != null) {
+            return value;
+        }
+        Long failedAt = failures.get(key);
+        if (failedAt != null && failedAt + failureTtlMillis > System.currentTimeMillis()) {
+            return null;
+        }
+        if (pending.add(key)) {
+            S.blocking(() -> {
+                try {
+                    put(key, lookup.apply(key));
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        }
+        return null;
+    }
+
+    private void put(@NonNull K key, @Nullable V value) {
+        if (value != null) {
+            failures.remove(key);
+            synchronized (values) {
+                values.put(key, value);
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (failures.size() >= maxSize) {
+            failures.values().removeIf(failedAt -> failedAt + failureTtlMillis <= now);
+            if (failures.size() >= maxSize) {
+                // Only recent failures left, retrying them early is harmless.
+                failures.clear();
+            }
+        }
+        failures.put(key, now);
+    }
+
+    /**
+     * Forget all cached values and failures.
+     */
+    public void clear() {
+        synchronized (values) {
+            values.clear();
+        }
+        failures.clear();
+    }
+
+}
@@ -42,7 +42,10 @@ public class HologramItem {
 				if (!extrasFinal.isEmpty()) {
 					if (extrasFinal.startsWith("HEADDATABASE_") && Bukkit.getPluginManager().isPluginEnabled("HeadDatabase")) {
 						String headDatabaseId = extrasFinal.substring("HEADDATABASE_".length());
-						itemBuilder.withItemStack(HeadDatabaseUtils.getHeadItemStackById(headDatabaseId));
+						ItemStack head = HeadDatabaseUtils.getCachedHeadItemStackById(headDatabaseId);
+						if (head != null) {
+							itemBuilder.withItemStack(head);
+						}
 					} else if (extrasFinal.length() <= 16) {
 						itemBuilder.withSkullOwner(extrasFinal);
 					} else {
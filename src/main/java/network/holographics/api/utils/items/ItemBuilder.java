@@ -288,8 +288,9 @@ public class ItemBuilder implements Cloneable {
 		/*
 		 * If the player is offline, we want to fetch the texture ourselves. This is because
 		 * if the server is NOT in online mode, it will not be able to fetch the texture from Mojang.
+		 * The texture is fetched in the background and applied once it's available.
 		 */
-		final String texture = SkullUtils.getTextureFromURLByPlayerName(playerName);
+		final String texture = SkullUtils.getCachedTextureByPlayerName(playerName);
 		if (texture != null) {
 			SkullUtils.setSkullTexture(itemStack, texture);
 		}
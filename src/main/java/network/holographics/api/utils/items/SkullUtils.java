@@ -3,7 +3,9 @@ package network.holographics.api.utils.items;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
 import com.mojang.authlib.properties.PropertyMap;
+import network.holographics.api.utils.collection.LookupCache;
 import network.holographics.api.utils.reflect.Version;
+import network.holographics.api.utils.scheduler.S;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import org.bukkit.SkullType;
@@ -22,6 +24,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -37,6 +40,10 @@ public final class SkullUtils {
 	private static Field PROFILE_FIELD;
 	private static Method SET_PROFILE_METHOD;
 	private static boolean INITIALIZED = false;
+	/**
+	 * Textures by lowercase player names. Failed requests are retried after a minute.
+	 */
+	private static final LookupCache<String, String> TEXTURE_CACHE = new LookupCache<>(512, 60_000L);
 
 	/**
 	 * Get the Base64 texture of the given skull ItemStack.
@@ -199,6 +206,19 @@ public final class SkullUtils {
 		return null;
 	}
 
+	/**
+	 * Get the Base64 texture of the given player, if it was already fetched. Otherwise,
+	 * it's fetched in the background using {@link S#blocking(Runnable)}, so the calling
+	 * thread never waits for the web request.
+	 *
+	 * @param username The player username.
+	 * @return The Base64 or null if it isn't fetched yet or couldn't be fetched.
+	 */
+	@Nullable
+	public static String getCachedTextureByPlayerName(@NonNull String username) {
+		return TEXTURE_CACHE.get(username.toLowerCase(Locale.ROOT), key -> getTextureFromURLByPlayerName(username));
+	}
+
 	/**
 	 * Fetch the UUID of a player from Minetools's API.
 	 *
@@ -38,6 +38,130 @@ public class Ray {
         };
     }
 
+    /**
+     * Check whether the given point lies within the cone around this ray.
+     *
+     * @param x            X coordinate of the point.
+     * @param y            Y coordinate of the point.
+     * @param z            Z coordinate of the point.
+     * @param cosHalfAngle Cosine of half the opening angle of the cone.
+     * @return True if the point is inside the cone, false otherwise.
+     */
+    public boolean isWithinCone(double x, double y, double z, double cosHalfAngle) {
+        return isWithinCone(start.getX(), start.getY(), start.getZ(), direction.getX(), direction.getY(), direction.getZ(),
+                x, y, z, cosHalfAngle);
+    }
+
+    /**
+     * Check whether the given point lies within the cone with the given apex and
+     * axis direction. The direction doesn't have to be normalized.
+     *
+     * @param ox           X coordinate of the apex.
+     * @param oy           Y coordinate of the apex.
+     * @param oz           Z coordinate of the apex.
+     * @param dx           X component of the axis direction.
+     * @param dy           Y component of the axis direction.
+     * @param dz           Z component of the axis direction.
+     * @param x            X coordinate of the point.
+     * @param y            Y coordinate of the point.
+     * @param z            Z coordinate of the point.
+     * @param cosHalfAngle Cosine of half the opening angle of the cone.
+     * @return True if the point is inside the cone, false otherwise.
+     */
+    public static boolean isWithinCone(double ox, double oy, double oz, double dx, double dy, double dz,
+                                       double x, double y, double z, double cosHalfAngle) {
+        double px = x - ox;
+        double py = y - oy;
+        double pz = z - oz;
+        double dot = px * dx + py * dy + pz * dz;
+        if (cosHalfAngle >= 0 && dot <= 0) {
+            return false;
+        }
+        double lengthSquared = (px * px + py * py + pz * pz) * (dx * dx + dy * dy + dz * dz);
+        if (lengthSquared == 0) {
+            return true;
+        }
+        // Compare squared values to avoid the square root.
+        double cosSquared = cosHalfAngle * cosHalfAngle;
+        if (cosHalfAngle >= 0) {
+            return dot * dot >= cosSquared * lengthSquared;
+        }
+        return dot >= 0 || dot * dot <= cosSquared * lengthSquared;
+    }
+
+    /**
+     * Walk the blocks between the given points and check whether any of them
+     * matches the given predicate. The blocks containing the two points are
+     * not tested.
+     *
+     * @param x1        X coordinate of the first point.
+     * @param y1        Y coordinate of the first point.
+     * @param z1        Z coordinate of the first point.
+     * @param x2        X coordinate of the second point.
+     * @param y2        Y coordinate of the second point.
+     * @param z2        Z coordinate of the second point.
+     * @param predicate The predicate to test the blocks with.
+     * @return True if any block between the points matches, false otherwise.
+     */
+    public static boolean anyBlockBetween(double x1, double y1, double z1, double x2, double y2, double z2,
+                                          @NotNull BlockPredicate predicate) {
+        int x = (int) Math.floor(x1);
+        int y = (int) Math.floor(y1);
+        int z = (int) Math.floor(z1);
+        int steps = Math.abs((int) Math.floor(x2) - x) + Math.abs((int) Math.floor(y2) - y) + Math.abs((int) Math.floor(z2) - z);
+        if (steps <= 1) {
+            return false;
+        }
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        int stepX = (int) Math.signum(dx);
+        int stepY = (int) Math.signum(dy);
+        int stepZ = (int) Math.signum(dz);
+        // Distances along the segment (0 to 1) between block boundaries and to the next boundary.
+        double deltaX = stepX == 0 ? Double.MAX_VALUE : Math.abs(1.0d / dx);
+        double deltaY = stepY == 0 ? Double.MAX_VALUE : Math.abs(1.0d / dy);
+        double deltaZ = stepZ == 0 ? Double.MAX_VALUE : Math.abs(1.0d / dz);
+        double maxX = stepX == 0 ? Double.MAX_VALUE : (stepX > 0 ? x + 1 - x1 : x1 - x) * deltaX;
+        double maxY = stepY == 0 ? Double.MAX_VALUE : (stepY > 0 ? y + 1 - y1 : y1 - y) * deltaY;
+        double maxZ = stepZ == 0 ? Double.MAX_VALUE : (stepZ > 0 ? z + 1 - z1 : z1 - z) * deltaZ;
+
+        for (int i = 1; i < steps; i++) {
+            if (maxX < maxY && maxX < maxZ) {
+                x += stepX;
+                maxX += deltaX;
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+            if (predicate.test(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walk the blocks along this ray up to the given distance and check whether
+     * any of them matches the given predicate.
+     *
+     * @param maxDistance The distance in multiples of the direction.
+     * @param predicate   The predicate to test the blocks with.
+     * @return True if any block along the ray matches, false otherwise.
+     * @see #anyBlockBetween(double, double, double, double, double, double, BlockPredicate)
+     */
+    public boolean anyBlock(double maxDistance, @NotNull BlockPredicate predicate) {
+        return anyBlockBetween(start.getX(), start.getY(), start.getZ(),
+                start.getX() + maxDistance * direction.getX(),
+                start.getY() + maxDistance * direction.getY(),
+                start.getZ() + maxDistance * direction.getZ(),
+                predicate);
+    }
+
     public boolean intersects(@NotNull BoundingBox bb, double maxDistance, double step) {
         for (double t = 0.0d; t < maxDistance; t += step) {
             double x = start.getX() + t * direction.getX();
@@ -48,4 +172,14 @@ public class Ray {
         return false;
     }
 
+    /**
+     * Predicate for block coordinates, used when walking the blocks along a ray.
+     */
+    @FunctionalInterface
+    public interface BlockPredicate {
+
+        boolean test(int x, int y, int z);
+
+    }
+
 }
@@ -0,0 +1,24 @@
+package network.holographics.api.utils.scheduler;
+
+/**
+ * Source of time used for scheduling decisions, like tick budgets and lag.
+ *
+ * @see Scheduler#getClock()
+ */
+@FunctionalInterface
+public interface Clock {
+
+    /**
+     * The real system clock.
+     */
+    Clock SYSTEM = System::nanoTime;
+
+    /**
+     * Get the current time of this clock. Like {@link System#nanoTime()}, the
+     * value is only meaningful compared to other values of the same clock.
+     *
+     * @return The current time in nanoseconds.
+     */
+    long nanoTime();
+
+}
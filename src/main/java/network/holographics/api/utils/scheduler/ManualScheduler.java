@@ -0,0 +1,191 @@
+package network.holographics.api.utils.scheduler;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Scheduler}, that only runs tasks when it's {@link #advance(long) advanced}.
+ * All tasks, synchronous and asynchronous, run on the advancing thread in the
+ * order they were scheduled, so the behaviour of a tick can be reproduced and
+ * measured without a running server.
+ * <p>
+ * The clock of this scheduler advances by exactly one server tick (50 ms) per
+ * tick, so time based decisions are deterministic as well.
+ */
+public class ManualScheduler implements Scheduler {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    private final List<ManualTask> tasks;
+    private final Clock clock;
+    private int nextTaskId;
+    private volatile long currentTick;
+
+    public ManualScheduler() {
+        this.tasks = new ArrayList<>();
+        this.clock = () -> currentTick * TICK_NANOS;
+        this.nextTaskId = 1;
+        this.currentTick = 0;
+    }
+
+    /**
+     * Advance this scheduler by the given amount of ticks, running all tasks,
+     * that are due during them.
+     *
+     * @param ticks The amount of ticks.
+     */
+    public void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            currentTick++;
+            for (ManualTask task : takeDue()) {
+                task.runnable.run();
+            }
+        }
+    }
+
+    private List<ManualTask> takeDue() {
+        List<ManualTask> due = new ArrayList<>();
+        synchronized (tasks) {
+            tasks.removeIf(task -> task.cancelled);
+            for (ManualTask task : tasks) {
+                if (task.nextRun <= currentTick) {
+                    due.add(task);
+                    if (task.interval > 0) {
+                        task.nextRun += task.interval;
+                    } else {
+                        task.cancelled = true;
+                    }
+                }
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Get the current tick of this scheduler.
+     *
+     * @return The current tick.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get the amount of scheduled tasks, that haven't been cancelled.
+     *
+     * @return The amount of pending tasks.
+     */
+    public int getPendingTasks() {
+        synchronized (tasks) {
+            return (int) tasks.stream().filter(task -> !task.cancelled).count();
+        }
+    }
+
+    private ManualTask schedule(Runnable runnable, long delay, long interval, boolean sync) {
+        synchronized (tasks) {
+            // Like the server scheduler, tasks without delay run on the next tick.
+            ManualTask task = new ManualTask(nextTaskId++, runnable, currentTick + Math.max(1L, delay),
+                    interval > 0 ? Math.max(1L, interval) : 0, sync);
+            tasks.add(task);
+            return task;
+        }
+    }
+
+    @Override
+    public void sync(Runnable runnable) {
+        schedule(runnable, 0, 0, true);
+    }
+
+    @Override
+    public BukkitTask sync(Runnable runnable, long delay) {
+        return schedule(runnable, delay, 0, true);
+    }
+
+    @Override
+    public BukkitTask syncTask(Runnable runnable, long interval, long delay) {
+        return schedule(runnable, delay, interval, true);
+    }
+
+    @Override
+    public void async(Runnable runnable) {
+        schedule(runnable, 0, 0, false);
+    }
+
+    @Override
+    public void async(Runnable runnable, long delay) {
+        schedule(runnable, delay, 0, false);
+    }
+
+    @Override
+    public BukkitTask asyncTask(Runnable runnable, long interval, long delay) {
+        return schedule(runnable, delay, interval, false);
+    }
+
+    @Override
+    public void cancel(int taskId) {
+        synchronized (tasks) {
+            for (ManualTask task : tasks) {
+                if (task.taskId == taskId) {
+                    task.cancelled = true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * A task scheduled on a {@link ManualScheduler}.
+     */
+    private final class ManualTask implements BukkitTask {
+
+        private final int taskId;
+        private final Runnable runnable;
+        private final long interval;
+        private final boolean sync;
+        private long nextRun;
+        private volatile boolean cancelled;
+
+        private ManualTask(int taskId, Runnable runnable, long nextRun, long interval, boolean sync) {
+            this.taskId = taskId;
+            this.runnable = runnable;
+            this.nextRun = nextRun;
+            this.interval = interval;
+            this.sync = sync;
+            this.cancelled = false;
+        }
+
+        @Override
+        public int getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return null;
+        }
+
+        @Override
+        public boolean isSync() {
+            return sync;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            ManualScheduler.this.cancel(taskId);
+        }
+    }
+
+}
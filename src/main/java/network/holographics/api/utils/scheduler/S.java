@@ -1,54 +1,80 @@
 package network.holographics.api.utils.scheduler;
 
-import network.holographics.api.HolographicsInternal;
-import network.holographics.api.HolographicsInternalAPI;
-import network.holographics.api.utils.DExecutor;
-import org.bukkit.Bukkit;
-import org.bukkit.plugin.IllegalPluginAccessException;
+import lombok.NonNull;
 import org.bukkit.scheduler.BukkitTask;
 
 public class S {
 
-    private static final HolographicsInternal HOLOGRAPHICS_INTERNAL = HolographicsInternalAPI.get();
+    private static volatile Scheduler scheduler = new ServerScheduler();
+
+    /**
+     * Get the scheduler, all tasks are scheduled on.
+     *
+     * @return The scheduler.
+     */
+    public static Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Replace the scheduler, all tasks are scheduled on, e.g. with a {@link ManualScheduler}
+     * in tests. Must be set before the ticker and managers are created.
+     *
+     * @param scheduler The scheduler.
+     */
+    public static void setScheduler(@NonNull Scheduler scheduler) {
+        S.scheduler = scheduler;
+    }
+
+    /**
+     * Get the clock of the current scheduler.
+     *
+     * @return The clock.
+     */
+    public static Clock getClock() {
+        return scheduler.getClock();
+    }
 
     public static void stopTask(int id) {
-        Bukkit.getScheduler().cancelTask(id);
+        scheduler.cancel(id);
     }
 
     public static void sync(Runnable runnable) {
-        Bukkit.getScheduler().runTask(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable);
+        scheduler.sync(runnable);
     }
 
     public static BukkitTask sync(Runnable runnable, long delay) {
-        return Bukkit.getScheduler().runTaskLater(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable, delay);
+        return scheduler.sync(runnable, delay);
     }
 
     public static BukkitTask syncTask(Runnable runnable, long interval) {
-        return Bukkit.getScheduler().runTaskTimer(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable, 0, interval);
+        return scheduler.syncTask(runnable, interval, 0);
     }
 
     public static void async(Runnable runnable) {
-        try {
-            Bukkit.getScheduler().runTaskAsynchronously(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable);
-        } catch (IllegalPluginAccessException e) {
-            DExecutor.execute(runnable);
-        }
+        scheduler.async(runnable);
+    }
+
+    /**
+     * Run work, that may block, e.g. on I/O, asynchronously.
+     *
+     * @param runnable The runnable.
+     * @see Scheduler#blocking(Runnable)
+     */
+    public static void blocking(Runnable runnable) {
+        scheduler.blocking(runnable);
     }
 
     public static void async(Runnable runnable, long delay) {
-        try {
-            Bukkit.getScheduler().runTaskLaterAsynchronously(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable, delay);
-        } catch (IllegalPluginAccessException e) {
-            DExecutor.execute(runnable);
-        }
+        scheduler.async(runnable, delay);
     }
 
     public static BukkitTask asyncTask(Runnable runnable, long interval) {
-        return Bukkit.getScheduler().runTaskTimerAsynchronously(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable, 0, interval);
+        return scheduler.asyncTask(runnable, interval, 0);
     }
 
     public static BukkitTask asyncTask(Runnable runnable, long interval, long delay) {
-        return Bukkit.getScheduler().runTaskTimerAsynchronously(HOLOGRAPHICS_INTERNAL.getPlugin(), runnable, delay, interval);
+        return scheduler.asyncTask(runnable, interval, delay);
     }
 
 }
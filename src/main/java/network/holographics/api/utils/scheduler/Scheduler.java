@@ -0,0 +1,89 @@
+package network.holographics.api.utils.scheduler;
+
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Abstraction of the scheduler used by {@link S} and the ticker. By default,
+ * tasks run on the server scheduler ({@link ServerScheduler}). Tests and
+ * benchmarks can use a {@link ManualScheduler} instead, which only runs tasks
+ * when it's advanced.
+ *
+ * @see S#setScheduler(Scheduler)
+ */
+public interface Scheduler {
+
+    /**
+     * Run the given task on the main thread on the next tick.
+     *
+     * @param runnable The task.
+     */
+    void sync(Runnable runnable);
+
+    /**
+     * Run the given task on the main thread after the given delay.
+     *
+     * @param runnable The task.
+     * @param delay    The delay in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask sync(Runnable runnable, long delay);
+
+    /**
+     * Run the given task on the main thread repeatedly.
+     *
+     * @param runnable The task.
+     * @param interval The interval in ticks.
+     * @param delay    The delay before the first run in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask syncTask(Runnable runnable, long interval, long delay);
+
+    /**
+     * Run the given task asynchronously.
+     *
+     * @param runnable The task.
+     */
+    void async(Runnable runnable);
+
+    /**
+     * Run the given task asynchronously after the given delay.
+     *
+     * @param runnable The task.
+     * @param delay    The delay in ticks.
+     */
+    void async(Runnable runnable, long delay);
+
+    /**
+     * Run the given task asynchronously and repeatedly.
+     *
+     * @param runnable The task.
+     * @param interval The interval in ticks.
+     * @param delay    The delay before the first run in ticks.
+     * @return The scheduled task.
+     */
+    BukkitTask asyncTask(Runnable runnable, long interval, long delay);
+
+    /**
+     * Run the given task, that may block, e.g. on I/O, asynchronously.
+     *
+     * @param runnable The task.
+     */
+    default void blocking(Runnable runnable) {
+        async(runnable);
+    }
+
+    /**
+     * Cancel the task with the given id.
+     *
+     * @param taskId The id of the task.
+     */
+    void cancel(int taskId);
+
+    /**
+     * Get the clock of this scheduler.
+     *
+     * @return The clock.
+     */
+    Clock getClock();
+
+}
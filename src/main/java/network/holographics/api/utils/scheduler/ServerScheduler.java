@@ -0,0 +1,94 @@
+package network.holographics.api.utils.scheduler;
+
+import network.holographics.api.HolographicsInternalAPI;
+import network.holographics.api.utils.DExecutor;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * {@link Scheduler} running tasks on the server scheduler.
+ */
+public class ServerScheduler implements Scheduler {
+
+    @Override
+    public void sync(Runnable runnable) {
+        Bukkit.getScheduler().runTask(getPlugin(), runnable);
+    }
+
+    @Override
+    public BukkitTask sync(Runnable runnable, long delay) {
+        return Bukkit.getScheduler().runTaskLater(getPlugin(), runnable, delay);
+    }
+
+    @Override
+    public BukkitTask syncTask(Runnable runnable, long interval, long delay) {
+        return Bukkit.getScheduler().runTaskTimer(getPlugin(), runnable, delay, interval);
+    }
+
+    /**
+     * Run the given task on the bounded pool of {@link DExecutor}, if it's
+     * initialized, otherwise on the async threads of the server scheduler.
+     *
+     * @param runnable The task.
+     */
+    @Override
+    public void async(Runnable runnable) {
+        if (DExecutor.getThreads() > 0) {
+            DExecutor.execute(runnable);
+            return;
+        }
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), runnable);
+        } catch (IllegalPluginAccessException e) {
+            DExecutor.execute(runnable);
+        }
+    }
+
+    @Override
+    public void async(Runnable runnable, long delay) {
+        // The server scheduler only waits for the delay, the task itself runs on the bounded pool.
+        Runnable task = DExecutor.getThreads() > 0 ? () -> DExecutor.execute(runnable) : runnable;
+        try {
+            Bukkit.getScheduler().runTaskLaterAsynchronously(getPlugin(), task, delay);
+        } catch (IllegalPluginAccessException e) {
+            DExecutor.execute(runnable);
+        }
+    }
+
+    @Override
+    public BukkitTask asyncTask(Runnable runnable, long interval, long delay) {
+        return Bukkit.getScheduler().runTaskTimerAsynchronously(getPlugin(), runnable, delay, interval);
+    }
+
+    /**
+     * Run the given task, that may block, e.g. on I/O, on a virtual thread if
+     * enabled, otherwise on the bounded blocking pool of {@link DExecutor}.
+     *
+     * @param runnable The task.
+     */
+    @Override
+    public void blocking(Runnable runnable) {
+        if (DExecutor.getThreads() > 0) {
+            DExecutor.executeBlocking(runnable);
+        } else {
+            async(runnable);
+        }
+    }
+
+    @Override
+    public void cancel(int taskId) {
+        Bukkit.getScheduler().cancelTask(taskId);
+    }
+
+    @Override
+    public Clock getClock() {
+        return Clock.SYSTEM;
+    }
+
+    private static Plugin getPlugin() {
+        return HolographicsInternalAPI.get().getPlugin();
+    }
+
+}
@@ -35,17 +35,33 @@ public interface ITicked {
     long getInterval();
 
     /**
-     * Check whether the tickable object should tick on the given tick. This
-     * method is used by the ticker to determine whether the {@link #tick()} method
-     * should be called on the given tick.
+     * Check whether the tickable object should tick on the given tick, ignoring
+     * its phase.
      *
      * @param tick The tick to check.
      * @return True if the tickable object should tick on the given tick, false otherwise.
+     * @deprecated The ticker spreads objects over the ticks of their interval and
+     * calls {@link #shouldTick(long, int)} with the real tick and the phase instead.
      */
+    @Deprecated
     default boolean shouldTick(long tick) {
         return tick % getInterval() == 0;
     }
 
+    /**
+     * Check whether the tickable object should tick on the given tick. This
+     * method is used by the ticker to determine whether the {@link #tick()} method
+     * should be called on the given tick.
+     *
+     * @param tick  The current tick of the ticker.
+     * @param phase The phase offset of this object within its interval, assigned by the ticker.
+     * @return True if the tickable object should tick on the given tick, false otherwise.
+     * @see Ticker#getPhase(String)
+     */
+    default boolean shouldTick(long tick, int phase) {
+        return Math.floorMod(tick - phase, Math.max(1L, getInterval())) == 0;
+    }
+
     /**
      * Register this tickable object to the ticker. By registering the object,
      * the ticker will call the {@link #tick()} method every interval ticks.
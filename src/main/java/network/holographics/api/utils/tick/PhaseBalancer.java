@@ -0,0 +1,92 @@
+package network.holographics.api.utils.tick;
+
+/**
+ * This class assigns phase offsets to periodic work, so that work with the same
+ * interval doesn't all run on the same tick. It keeps a histogram of how much
+ * work runs on each tick of a fixed period and always picks the least loaded
+ * phase.
+ * <p>
+ * The histogram covers {@value #PERIOD} ticks, which is a multiple of all
+ * common intervals (1, 2, 4, 5, 10, 20, 40, 60, ...). Intervals, that don't
+ * divide the period, are tracked approximately.
+ */
+public class PhaseBalancer {
+
+    public static final int PERIOD = 120;
+
+    private final long[] load;
+
+    public PhaseBalancer() {
+        this.load = new long[PERIOD];
+    }
+
+    /**
+     * Pick the least loaded phase for work with the given interval and record
+     * the work in the histogram.
+     *
+     * @param interval The interval in ticks.
+     * @return The phase, between 0 (inclusive) and the interval (exclusive).
+     * @see #release(long, int)
+     */
+    public synchronized int acquire(long interval) {
+        int phases = (int) Math.min(Math.max(1L, interval), PERIOD);
+        int best = 0;
+        long bestLoad = Long.MAX_VALUE;
+        for (int phase = 0; phase < phases; phase++) {
+            long phaseLoad = 0;
+            for (int tick = phase; tick < PERIOD; tick += phases) {
+                phaseLoad = Math.max(phaseLoad, load[tick]);
+            }
+            if (phaseLoad < bestLoad) {
+                best = phase;
+                bestLoad = phaseLoad;
+            }
+        }
+        update(interval, best, 1);
+        return best;
+    }
+
+    /**
+     * Remove work with the given interval and phase from the histogram.
+     *
+     * @param interval The interval in ticks, the phase was acquired for.
+     * @param phase    The phase.
+     */
+    public synchronized void release(long interval, int phase) {
+        update(interval, phase, -1);
+    }
+
+    private void update(long interval, int phase, int delta) {
+        if (interval > PERIOD) {
+            load[phase % PERIOD] += delta;
+            return;
+        }
+        int step = (int) Math.max(1L, interval);
+        for (int tick = phase % step; tick < PERIOD; tick += step) {
+            load[tick] += delta;
+        }
+    }
+
+    /**
+     * Get the amount of work running on each tick of the period.
+     *
+     * @return Copy of the histogram, indexed by tick modulo {@value #PERIOD}.
+     */
+    public synchronized long[] getHistogram() {
+        return load.clone();
+    }
+
+    /**
+     * Get the amount of work running on the busiest tick of the period.
+     *
+     * @return The peak load.
+     */
+    public synchronized long getPeakLoad() {
+        long peak = 0;
+        for (long tickLoad : load) {
+            peak = Math.max(peak, tickLoad);
+        }
+        return peak;
+    }
+
+}
@@ -0,0 +1,34 @@
+package network.holographics.api.utils.tick;
+
+import lombok.NonNull;
+import network.holographics.api.utils.DExecutor;
+
+import java.util.List;
+
+/**
+ * Runs a batch of due objects for the {@link Ticker} and waits until all of
+ * them have been ticked.
+ *
+ * @see Ticker#Ticker(network.holographics.api.utils.scheduler.Scheduler, TickExecutor)
+ */
+@FunctionalInterface
+public interface TickExecutor {
+
+    /**
+     * Run the batch in parallel on the threads of {@link DExecutor}.
+     */
+    TickExecutor PARALLEL = tasks -> DExecutor.forEach(tasks, 1, Runnable::run);
+
+    /**
+     * Run the batch on the calling thread, in order.
+     */
+    TickExecutor DIRECT = tasks -> tasks.forEach(Runnable::run);
+
+    /**
+     * Run all the given tasks and wait until they are done.
+     *
+     * @param tasks The tasks.
+     */
+    void invokeAll(@NonNull List<Runnable> tasks);
+
+}
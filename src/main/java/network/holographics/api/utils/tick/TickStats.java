@@ -0,0 +1,99 @@
+package network.holographics.api.utils.tick;
+
+import java.util.Arrays;
+
+/**
+ * Execution time statistics of a single {@link ITicked} object. Count, mean and
+ * max cover all recorded executions, the 99th percentile is computed from the
+ * last {@value #SAMPLES} executions.
+ */
+public class TickStats {
+
+    public static final int SAMPLES = 128;
+
+    private final long[] samples;
+    private int sampleIndex;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long errors;
+
+    public TickStats() {
+        this.samples = new long[SAMPLES];
+    }
+
+    /**
+     * Record a single execution.
+     *
+     * @param nanos  The execution time in nanoseconds.
+     * @param failed Whether the execution threw an exception.
+     */
+    synchronized void record(long nanos, boolean failed) {
+        samples[sampleIndex] = nanos;
+        sampleIndex = (sampleIndex + 1) % SAMPLES;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        if (failed) {
+            errors++;
+        }
+    }
+
+    /**
+     * Get the amount of recorded executions.
+     *
+     * @return The amount of executions.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the amount of executions, that threw an exception.
+     *
+     * @return The amount of failed executions.
+     */
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Get the mean execution time.
+     *
+     * @return The mean execution time in nanoseconds.
+     */
+    public synchronized long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Get the longest execution time.
+     *
+     * @return The longest execution time in nanoseconds.
+     */
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Get the 99th percentile of the recent execution times.
+     *
+     * @return The 99th percentile in nanoseconds.
+     */
+    public synchronized long getP99Nanos() {
+        int size = (int) Math.min(count, SAMPLES);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(size * 0.99d) - 1];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("count=%d, mean=%.3fms, p99=%.3fms, max=%.3fms, errors=%d",
+                count, getMeanNanos() / 1e6d, getP99Nanos() / 1e6d, maxNanos / 1e6d, errors);
+    }
+
+}
@@ -1,42 +1,159 @@
 package network.holographics.api.utils.tick;
 
+import network.holographics.api.nms.NMS;
+import network.holographics.api.utils.Common;
 import network.holographics.api.utils.DExecutor;
-import network.holographics.api.utils.collection.DList;
+import network.holographics.api.utils.scheduler.Clock;
+import network.holographics.api.utils.scheduler.ManualScheduler;
 import network.holographics.api.utils.scheduler.S;
+import network.holographics.api.utils.scheduler.Scheduler;
+import org.bukkit.Bukkit;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 
+/**
+ * This class ticks all registered {@link ITicked} objects at their intervals.
+ * <p>
+ * Ticked objects are kept in a hierarchical timing wheel, bucketed by the tick
+ * they are due next, so every tick only touches the objects, that are actually
+ * due. Registering and unregistering is O(1), objects are indexed by their id.
+ * <p>
+ * Each object gets a phase offset from the {@link PhaseBalancer}, so objects
+ * with the same interval are spread evenly over the ticks of the interval.
+ * <p>
+ * Due objects are ticked in batches until the tick budget is used up. Objects,
+ * that didn't fit into the budget, stay in the backlog and are ticked first on
+ * the next tick, so under load all objects are delayed fairly instead of
+ * whole ticks being skipped.
+ * <p>
+ * The ticker records {@link TickStats} for every ticked object, counts
+ * overrunning and dropped ticks and tracks, how far it lags behind the
+ * wall clock.
+ * <p>
+ * The ticker runs on a {@link Scheduler}, so it can be driven by a
+ * {@link ManualScheduler} to step ticks deterministically. Batches of due
+ * objects are run by a {@link TickExecutor}, which ticks them in parallel by
+ * default and on the advancing thread under a {@link ManualScheduler}.
+ */
 public class Ticker {
 
+    /**
+     * Amount of slots of a single wheel level, expressed as a bit shift. (64 slots)
+     */
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    /**
+     * Longest delay, that fits into the wheel. Objects due later are cascaded
+     * down from the top level until they fit.
+     */
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+    /**
+     * Amount of objects ticked in a single batch per executor thread. The budget
+     * is checked between batches.
+     */
+    private static final int BATCH_PER_THREAD = 16;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
     private final int taskId;
+    private final Scheduler scheduler;
+    private final TickExecutor executor;
+    private final Clock clock;
     private final AtomicLong ticks;
-    private final DList<ITicked> tickedObjects;
-    private final DList<ITicked> newTickedObjects;
-    private final DList<String> removeTickedObjects;
+    private final Map<String, Entry> entries;
+    private final Queue<Entry> newEntries;
+    private final List<List<Entry>> wheel;
+    private final PhaseBalancer phaseBalancer;
+    private final Deque<Entry> backlog;
+    private volatile long budgetNanos;
     private volatile boolean performingTick;
+    private final AtomicLong overruns;
+    private final AtomicLong droppedTicks;
+    private volatile long startNanos;
+    private volatile long lastTickNanos;
 
     /**
-     * Default constructor. Ticker is initialized and started.
+     * Default constructor. Ticker is initialized and started on the scheduler of {@link S}.
      */
     public Ticker() {
+        this(S.getScheduler());
+    }
+
+    /**
+     * Create a new ticker and start it on the given scheduler. Objects are ticked
+     * in order on the scheduler thread, if it's a {@link ManualScheduler}, and
+     * in parallel otherwise.
+     *
+     * @param scheduler The scheduler.
+     */
+    public Ticker(Scheduler scheduler) {
+        this(scheduler, scheduler instanceof ManualScheduler ? TickExecutor.DIRECT : TickExecutor.PARALLEL);
+    }
+
+    /**
+     * Create a new ticker and start it on the given scheduler.
+     *
+     * @param scheduler The scheduler.
+     * @param executor  The executor running the batches of due objects.
+     */
+    public Ticker(Scheduler scheduler, TickExecutor executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.clock = scheduler.getClock();
         this.ticks = new AtomicLong(0);
-        this.tickedObjects = new DList<>(1024);
-        this.newTickedObjects = new DList<>(64);
-        this.removeTickedObjects = new DList<>(64);
+        this.entries = new ConcurrentHashMap<>();
+        this.newEntries = new ConcurrentLinkedQueue<>();
+        this.wheel = new ArrayList<>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            this.wheel.add(new ArrayList<>());
+        }
+        this.phaseBalancer = new PhaseBalancer();
+        this.backlog = new ArrayDeque<>();
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(25L);
         this.performingTick = false;
-        this.taskId = S.asyncTask(() -> {
-            if (!performingTick) tick();
+        this.overruns = new AtomicLong(0);
+        this.droppedTicks = new AtomicLong(0);
+        this.startNanos = 0;
+        this.taskId = scheduler.asyncTask(() -> {
+            if (performingTick) {
+                droppedTicks.incrementAndGet();
+            } else {
+                tick();
+            }
         }, 1L, 5L).getTaskId();
     }
 
     /**
-     * Stop the ticker and unregister all ticked objects.
+     * Stop the ticker and unregister all ticked objects. Packets, that were
+     * written since the last tick, are flushed.
      */
     public void destroy() {
-        S.stopTask(taskId);
-        tickedObjects.clear();
-        newTickedObjects.clear();
-        removeTickedObjects.clear();
+        scheduler.cancel(taskId);
+        NMS nms = getNms();
+        if (nms != null) {
+            nms.flushPackets();
+        }
+        entries.clear();
+        newEntries.clear();
+        synchronized (backlog) {
+            backlog.clear();
+        }
+        synchronized (wheel) {
+            wheel.forEach(List::clear);
+        }
     }
 
     /**
@@ -45,11 +162,10 @@ public class Ticker {
      * @param ticked The ticked object.
      */
     public void register(ITicked ticked) {
-        synchronized (newTickedObjects) {
-            if (tickedObjects.contains(ticked)) return;
-            if (!newTickedObjects.contains(ticked)) {
-                newTickedObjects.add(ticked);
-            }
+        Entry entry = new Entry(ticked);
+        if (entries.putIfAbsent(entry.id, entry) == null) {
+            entry.phase = phaseBalancer.acquire(entry.interval);
+            newEntries.add(entry);
         }
     }
 
@@ -59,53 +175,342 @@ public class Ticker {
      * @param id The id of the ticked object.
      */
     public void unregister(String id) {
-        synchronized (removeTickedObjects) {
-            if (!removeTickedObjects.contains(id)) {
-                removeTickedObjects.add(id);
-            }
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            // The entry is dropped from the wheel once it's due.
+            entry.cancelled = true;
+            phaseBalancer.release(entry.interval, entry.phase);
+        }
+    }
+
+    /**
+     * Get the amount of registered ticked objects.
+     *
+     * @return The amount of registered ticked objects.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the current tick of this ticker.
+     *
+     * @return The current tick.
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * Get the phase of the given ticked object, i.e. its offset within its
+     * interval. The object is due on the ticks, whose difference to the phase
+     * is a multiple of its interval.
+     *
+     * @param id The id of the ticked object.
+     * @return The phase or -1 if no such object is registered.
+     */
+    public int getPhase(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? -1 : entry.phase;
+    }
+
+    /**
+     * Get the amount of due objects, that haven't been ticked yet, because
+     * the tick budget was used up.
+     *
+     * @return The size of the backlog.
+     */
+    public int getBacklogSize() {
+        synchronized (backlog) {
+            return backlog.size();
         }
     }
 
+    /**
+     * Get the time budget of a single tick.
+     *
+     * @return The budget in milliseconds.
+     */
+    public long getTickBudget() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    /**
+     * Set the time budget of a single tick. Once it's used up, the remaining
+     * due objects are carried over to the next tick.
+     *
+     * @param millis The budget in milliseconds. Zero or less means unlimited.
+     */
+    public void setTickBudget(long millis) {
+        this.budgetNanos = millis <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Get the execution time statistics of the given ticked object.
+     *
+     * @param id The id of the ticked object.
+     * @return The statistics or null if no such object is registered.
+     */
+    public TickStats getStats(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.stats;
+    }
+
+    /**
+     * Get the execution time statistics of all registered ticked objects.
+     *
+     * @return Map of the statistics by the ids of the ticked objects.
+     */
+    public Map<String, TickStats> getAllStats() {
+        Map<String, TickStats> stats = new HashMap<>();
+        entries.forEach((id, entry) -> stats.put(id, entry.stats));
+        return stats;
+    }
+
+    /**
+     * Get the amount of ticks, that took longer than the tick budget or a
+     * server tick, whichever is shorter.
+     *
+     * @return The amount of overrunning ticks.
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    /**
+     * Get the amount of scheduled runs, that were dropped, because the previous
+     * tick was still running.
+     *
+     * @return The amount of dropped ticks.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks.get();
+    }
+
+    /**
+     * Get the duration of the last completed tick.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Get how far this ticker lags behind the wall clock, i.e. the difference
+     * between the time passed since the first tick and the time the completed
+     * ticks should have taken. This includes lag of the server itself, as the
+     * ticker is driven by the server scheduler.
+     *
+     * @return The lag in milliseconds.
+     */
+    public long getLagMillis() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long lagNanos = clock.nanoTime() - start - ticks.get() * TICK_NANOS;
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(lagNanos));
+    }
+
+    /**
+     * Get the phase balancer of this ticker. It can also be used to spread
+     * periodic work, that runs inside of ticked objects.
+     *
+     * @return The phase balancer.
+     */
+    public PhaseBalancer getPhaseBalancer() {
+        return phaseBalancer;
+    }
+
+    /**
+     * Get the amount of ticked objects and other registered work running on
+     * each tick of the {@link PhaseBalancer#PERIOD balancing period}.
+     *
+     * @return The load histogram.
+     */
+    public long[] getLoadHistogram() {
+        return phaseBalancer.getHistogram();
+    }
+
     private void tick() {
         performingTick = true;
+        long start = clock.nanoTime();
+        long tick = ticks.get();
+        if (startNanos == 0) {
+            startNanos = start;
+        }
 
-        // Tick all ticked objects
-        DExecutor e = DExecutor.create(tickedObjects.size());
-        synchronized (tickedObjects) {
-            for (ITicked ticked : tickedObjects) {
-                if (ticked.shouldTick(ticks.get())) {
-                    e.queue(() -> {
-                        try {
-                            ticked.tick();
-                        } catch (Throwable t) {
-                            t.printStackTrace();
-                        }
-                    });
-                }
-            }
+        // Due objects are queued behind the ones carried over from previous ticks.
+        synchronized (backlog) {
+            backlog.addAll(advance(tick));
         }
 
-        // Remove ticked objects
-        synchronized (removeTickedObjects) {
-            while (removeTickedObjects.hasElements()) {
-                String id = removeTickedObjects.popRandom();
-                for (int i = 0; i < tickedObjects.size(); i++) {
-                    if (tickedObjects.get(i).getId().equals(id)) {
-                        tickedObjects.remove(i);
-                        break;
-                    }
+        // Tick due objects in batches until the budget is used up
+        NMS nms = getNms();
+        int batchSize = Math.max(1, DExecutor.getThreads()) * BATCH_PER_THREAD;
+        List<Entry> batch = new ArrayList<>(batchSize);
+        List<Runnable> tasks = new ArrayList<>(batchSize);
+        do {
+            batch.clear();
+            synchronized (backlog) {
+                while (batch.size() < batchSize && !backlog.isEmpty()) {
+                    batch.add(backlog.poll());
                 }
             }
-        }
+            if (batch.isEmpty()) {
+                break;
+            }
+            tasks.clear();
+            for (Entry entry : batch) {
+                tasks.add(() -> tick(entry, nms));
+            }
+            executor.invokeAll(tasks);
+            for (Entry entry : batch) {
+                if (!entry.cancelled) {
+                    schedule(entry, tick);
+                }
+            }
+        } while (clock.nanoTime() - start < budgetNanos);
 
         // Add new ticked objects
-        synchronized (newTickedObjects) {
-            while (newTickedObjects.hasElements()) {
-                tickedObjects.add(newTickedObjects.pop());
+        Entry entry;
+        while ((entry = newEntries.poll()) != null) {
+            if (!entry.cancelled) {
+                schedule(entry, tick);
             }
         }
+
+        // Packets written during the tick are sent to each player in one flush.
+        if (nms != null) {
+            nms.flushPackets();
+        }
+
+        long duration = clock.nanoTime() - start;
+        lastTickNanos = duration;
+        if (duration > Math.min(budgetNanos, TICK_NANOS)) {
+            overruns.incrementAndGet();
+        }
         performingTick = false;
         ticks.incrementAndGet();
     }
 
+    private void tick(Entry entry, NMS nms) {
+        ITicked ticked = entry.ticked;
+        if (entry.cancelled || !ticked.shouldTick(entry.due, entry.phase)) {
+            return;
+        }
+        // Timings measure the actual work, so they use the real clock.
+        long tickStart = System.nanoTime();
+        boolean failed = false;
+        try {
+            if (nms != null) {
+                nms.runBatched(ticked::tick);
+            } else {
+                ticked.tick();
+            }
+        } catch (Throwable t) {
+            failed = true;
+            Common.log(Level.WARNING, "Exception encountered while ticking " + entry.id, t);
+        }
+        entry.stats.record(System.nanoTime() - tickStart, failed);
+    }
+
+    /**
+     * Get the NMS instance, packets of ticked objects are batched on. There is
+     * none without a server, e.g. when the ticker is stepped by a test.
+     */
+    private static NMS getNms() {
+        return Bukkit.getServer() == null ? null : NMS.getInstance();
+    }
+
+    /**
+     * Schedule the given entry at the next tick after the given one, that is
+     * a multiple of its interval shifted by its phase.
+     *
+     * @param entry The entry.
+     * @param now   The current tick.
+     */
+    private void schedule(Entry entry, long now) {
+        long interval = Math.max(1L, entry.ticked.getInterval());
+        long next = now + 1;
+        entry.due = next + Math.floorMod(entry.phase - next, interval);
+        place(entry, now);
+    }
+
+    /**
+     * Put the given entry into the slot of the wheel matching its due tick.
+     *
+     * @param entry The entry.
+     * @param now   The current tick.
+     */
+    private void place(Entry entry, long now) {
+        long delay = Math.min(entry.due - now, MAX_DELAY);
+        long due = now + delay;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (due >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+        synchronized (wheel) {
+            wheel.get(level * WHEEL_SIZE + slot).add(entry);
+        }
+    }
+
+    /**
+     * Advance the wheel to the given tick. Entries of higher levels, that are
+     * due within the next lower level, are cascaded down first.
+     *
+     * @param now The current tick.
+     * @return The entries due at the given tick.
+     */
+    private List<Entry> advance(long now) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                continue;
+            }
+            int slot = (int) (now >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+            for (Entry entry : take(level, slot)) {
+                if (!entry.cancelled) {
+                    place(entry, now);
+                }
+            }
+        }
+        return take(0, (int) now & WHEEL_MASK);
+    }
+
+    private List<Entry> take(int level, int slot) {
+        synchronized (wheel) {
+            List<Entry> bucket = wheel.get(level * WHEEL_SIZE + slot);
+            if (bucket.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Entry> taken = new ArrayList<>(bucket);
+            bucket.clear();
+            return taken;
+        }
+    }
+
+    /**
+     * A registered ticked object and the tick it's due next.
+     */
+    private static final class Entry {
+
+        private final ITicked ticked;
+        private final String id;
+        private final long interval;
+        private volatile int phase;
+        private long due;
+        private volatile boolean cancelled;
+        private final TickStats stats;
+
+        private Entry(ITicked ticked) {
+            this.ticked = ticked;
+            this.id = ticked.getId();
+            this.interval = ticked.getInterval();
+            this.cancelled = false;
+            this.stats = new TickStats();
+        }
+    }
+
 }
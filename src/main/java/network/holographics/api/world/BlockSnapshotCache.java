@@ -0,0 +1,356 @@
+package network.holographics.api.world;
+
+import lombok.NonNull;
+import network.holographics.api.utils.objects.Ray;
+import network.holographics.api.utils.reflect.Version;
+import network.holographics.api.utils.scheduler.S;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class caches snapshots of loaded chunks, so that line of sight can be
+ * checked asynchronously. Snapshots can only be taken on the main thread, so
+ * chunks, that aren't cached yet, are queued and captured a few at a time
+ * every tick. Until then, their blocks are considered to be transparent.
+ * At most {@value #MAX_CHUNKS} snapshots are kept, the least recently used
+ * ones are evicted first.
+ * <p>
+ * Block types can only be read from snapshots on 1.13 and newer. On older
+ * versions, nothing is ever occluding.
+ * <p>
+ * The cache also tracks, which chunks are loaded, so that async code doesn't
+ * have to ask the world. Chunks are checked on the main thread, when they
+ * are queried, and forgotten, when they unload.
+ */
+public class BlockSnapshotCache {
+
+    private static final int MAX_CAPTURES_PER_TICK = 8;
+    private static final int MAX_CHUNKS = 128;
+    private static final int MAX_LOAD_CHECKS_PER_TICK = 256;
+
+    private final int taskId;
+    private final @NonNull Map<UUID, Map<Long, Entry>> chunks;
+    private final @NonNull Set<ChunkKey> pending;
+    private final @NonNull Map<UUID, Map<Long, Long>> loadedChunks;
+    private final @NonNull Set<ChunkKey> pendingLoadChecks;
+    private volatile long timeToLive;
+
+    public BlockSnapshotCache() {
+        this.chunks = new ConcurrentHashMap<>();
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.loadedChunks = new ConcurrentHashMap<>();
+        this.pendingLoadChecks = ConcurrentHashMap.newKeySet();
+        this.timeToLive = 5000L;
+        this.taskId = S.syncTask(this::capturePending, 1L).getTaskId();
+    }
+
+    /**
+     * Stop capturing snapshots and forget all cached snapshots.
+     */
+    public void destroy() {
+        S.stopTask(taskId);
+        chunks.clear();
+        pending.clear();
+        loadedChunks.clear();
+        pendingLoadChecks.clear();
+    }
+
+    /**
+     * Check whether the given version supports reading blocks from chunk snapshots.
+     *
+     * @return True if occlusion can be checked, false otherwise.
+     */
+    public static boolean isSupported() {
+        return Version.afterOrEqual(13);
+    }
+
+    /**
+     * Check whether there is an occluding block between the given points. Chunks,
+     * that aren't cached, are queued for capturing and considered transparent.
+     *
+     * @param world UID of the world.
+     * @param x1    X coordinate of the first point.
+     * @param y1    Y coordinate of the first point.
+     * @param z1    Z coordinate of the first point.
+     * @param x2    X coordinate of the second point.
+     * @param y2    Y coordinate of the second point.
+     * @param z2    Z coordinate of the second point.
+     * @return True if the line of sight is blocked, false otherwise.
+     */
+    public boolean isObstructed(@NonNull UUID world, double x1, double y1, double z1, double x2, double y2, double z2) {
+        if (!isSupported()) {
+            return false;
+        }
+        Map<Long, Entry> worldChunks = chunks.computeIfAbsent(world, k -> new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+        return Ray.anyBlockBetween(x1, y1, z1, x2, y2, z2, (x, y, z) -> {
+            int cx = x >> 4;
+            int cz = z >> 4;
+            long key = key(cx, cz);
+            Entry entry = worldChunks.get(key);
+            if (entry == null || entry.capturedAt + timeToLive < now) {
+                pending.add(new ChunkKey(world, cx, cz));
+                if (entry == null) {
+                    return false;
+                }
+            }
+            entry.touch(now);
+            return entry.isOccluding(x & 15, y, z & 15);
+        });
+    }
+
+    /**
+     * Check whether the given chunk was loaded, when it was last checked on the
+     * main thread. Chunks, that weren't checked yet or whose check expired, are
+     * queued for checking. Until a chunk has been checked, it's considered
+     * not loaded.
+     *
+     * @param world UID of the world.
+     * @param cx    X coordinate of the chunk.
+     * @param cz    Z coordinate of the chunk.
+     * @return True if the chunk is loaded, false otherwise.
+     */
+    public boolean isChunkLoaded(@NonNull UUID world, int cx, int cz) {
+        long key = key(cx, cz);
+        long now = System.currentTimeMillis();
+        Map<Long, Entry> worldChunks = chunks.get(world);
+        Entry entry = worldChunks == null ? null : worldChunks.get(key);
+        if (entry != null && entry.capturedAt + timeToLive >= now) {
+            return true;
+        }
+        Map<Long, Long> worldLoaded = loadedChunks.get(world);
+        Long checkedAt = worldLoaded == null ? null : worldLoaded.get(key);
+        if (checkedAt == null || checkedAt + timeToLive < now) {
+            pendingLoadChecks.add(new ChunkKey(world, cx, cz));
+        }
+        // Unloaded chunks are forgotten right away, so a stale entry is still loaded.
+        return checkedAt != null;
+    }
+
+    /**
+     * Capture a limited amount of queued chunks and check queued chunks for
+     * being loaded. Must be called on the main thread.
+     */
+    private void capturePending() {
+        if (pending.isEmpty() && pendingLoadChecks.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Refresh queued chunks first, so they aren't evicted right before they are checked again.
+        checkPendingLoaded(now);
+        evictExpired(now);
+
+        int captured = 0;
+        Iterator<ChunkKey> iterator = pending.iterator();
+        while (iterator.hasNext() && captured < MAX_CAPTURES_PER_TICK) {
+            ChunkKey chunkKey = iterator.next();
+            iterator.remove();
+            World world = Bukkit.getWorld(chunkKey.world);
+            if (world == null || !world.isChunkLoaded(chunkKey.x, chunkKey.z)) {
+                continue;
+            }
+            ChunkSnapshot snapshot = world.getChunkAt(chunkKey.x, chunkKey.z).getChunkSnapshot(false, false, false);
+            chunks.computeIfAbsent(chunkKey.world, k -> new ConcurrentHashMap<>())
+                    .put(key(chunkKey.x, chunkKey.z), new Entry(snapshot, getMinHeight(world), world.getMaxHeight(), now));
+            captured++;
+        }
+        evictLeastRecentlyUsed();
+    }
+
+    private void checkPendingLoaded(long now) {
+        int checked = 0;
+        Iterator<ChunkKey> iterator = pendingLoadChecks.iterator();
+        while (iterator.hasNext() && checked < MAX_LOAD_CHECKS_PER_TICK) {
+            ChunkKey chunkKey = iterator.next();
+            iterator.remove();
+            checked++;
+            World world = Bukkit.getWorld(chunkKey.world);
+            Map<Long, Long> worldLoaded = loadedChunks.computeIfAbsent(chunkKey.world, k -> new ConcurrentHashMap<>());
+            if (world != null && world.isChunkLoaded(chunkKey.x, chunkKey.z)) {
+                worldLoaded.put(key(chunkKey.x, chunkKey.z), now);
+            } else {
+                worldLoaded.remove(key(chunkKey.x, chunkKey.z));
+            }
+        }
+    }
+
+    private void evictExpired(long now) {
+        for (Map.Entry<UUID, Map<Long, Long>> worldLoaded : loadedChunks.entrySet()) {
+            UUID world = worldLoaded.getKey();
+            /*
+             * Chunks, that are still queued for checking, keep their stale entry,
+             * so they don't appear unloaded until their check is done. Only
+             * chunks nobody asked about anymore are forgotten.
+             */
+            worldLoaded.getValue().entrySet().removeIf(entry -> entry.getValue() + timeToLive < now
+                    && !pendingLoadChecks.contains(new ChunkKey(world, (int) (entry.getKey() >> 32), (int) (long) entry.getKey())));
+        }
+        for (Map<Long, Entry> worldChunks : chunks.values()) {
+            worldChunks.values().removeIf(entry -> entry.capturedAt + timeToLive < now);
+        }
+    }
+
+    /**
+     * Evict the least recently used snapshots, until at most {@value #MAX_CHUNKS} are left.
+     */
+    private void evictLeastRecentlyUsed() {
+        List<Cached> cached = new ArrayList<>();
+        for (Map<Long, Entry> worldChunks : chunks.values()) {
+            for (Map.Entry<Long, Entry> entry : worldChunks.entrySet()) {
+                cached.add(new Cached(worldChunks, entry.getKey(), entry.getValue()));
+            }
+        }
+        int excess = cached.size() - MAX_CHUNKS;
+        if (excess <= 0) {
+            return;
+        }
+        cached.sort(Comparator.comparingLong(candidate -> candidate.lastAccessed));
+        for (int i = 0; i < excess; i++) {
+            Cached candidate = cached.get(i);
+            candidate.worldChunks.remove(candidate.key, candidate.entry);
+        }
+    }
+
+    /**
+     * Forget all cached snapshots of the given world.
+     *
+     * @param world UID of the world.
+     */
+    public void invalidate(@NonNull UUID world) {
+        chunks.remove(world);
+        loadedChunks.remove(world);
+    }
+
+    /**
+     * Forget the cached snapshot and loaded state of the given chunk.
+     *
+     * @param world UID of the world.
+     * @param cx    X coordinate of the chunk.
+     * @param cz    Z coordinate of the chunk.
+     */
+    public void invalidate(@NonNull UUID world, int cx, int cz) {
+        long key = key(cx, cz);
+        Map<Long, Entry> worldChunks = chunks.get(world);
+        if (worldChunks != null) {
+            worldChunks.remove(key);
+        }
+        Map<Long, Long> worldLoaded = loadedChunks.get(world);
+        if (worldLoaded != null) {
+            worldLoaded.remove(key);
+        }
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Set the time, after which cached snapshots are captured again.
+     *
+     * @param timeToLive Time to live in milliseconds.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    private static int getMinHeight(@NonNull World world) {
+        return Version.afterOrEqual(17) ? world.getMinHeight() : 0;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A cached snapshot of a single chunk.
+     */
+    private static final class Entry {
+
+        private final ChunkSnapshot snapshot;
+        private final int minHeight;
+        private final int maxHeight;
+        private final long capturedAt;
+        private volatile long lastAccessed;
+
+        private Entry(ChunkSnapshot snapshot, int minHeight, int maxHeight, long capturedAt) {
+            this.snapshot = snapshot;
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
+            this.capturedAt = capturedAt;
+            this.lastAccessed = capturedAt;
+        }
+
+        private void touch(long now) {
+            if (lastAccessed < now) {
+                lastAccessed = now;
+            }
+        }
+
+        private boolean isOccluding(int x, int y, int z) {
+            if (y < minHeight || y >= maxHeight) {
+                return false;
+            }
+            Material type = snapshot.getBlockType(x, y, z);
+            return type.isOccluding();
+        }
+    }
+
+    /**
+     * A cached snapshot and the time it was last used, when eviction started.
+     */
+    private static final class Cached {
+
+        private final Map<Long, Entry> worldChunks;
+        private final long key;
+        private final Entry entry;
+        private final long lastAccessed;
+
+        private Cached(Map<Long, Entry> worldChunks, long key, Entry entry) {
+            this.worldChunks = worldChunks;
+            this.key = key;
+            this.entry = entry;
+            this.lastAccessed = entry.lastAccessed;
+        }
+    }
+
+    /**
+     * Coordinates of a chunk, that is waiting to be captured.
+     */
+    private static final class ChunkKey {
+
+        private final UUID world;
+        private final int x;
+        private final int z;
+
+        private ChunkKey(UUID world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ChunkKey)) return false;
+            ChunkKey chunkKey = (ChunkKey) o;
+            return x == chunkKey.x && z == chunkKey.z && world.equals(chunkKey.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * world.hashCode() + x) + z;
+        }
+    }
+
+}
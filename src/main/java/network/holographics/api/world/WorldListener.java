@@ -9,6 +9,7 @@ import network.holographics.api.utils.scheduler.S;
 import org.bukkit.World;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
 public class WorldListener implements Listener {
@@ -20,9 +21,16 @@ public class WorldListener implements Listener {
         HologramManager hm = DH.getHologramManager();
         World world = event.getWorld();
 
-        S.async(() -> hm.getHolograms().stream()
+        DH.getBlockSnapshotCache().invalidate(world.getUID());
+        // Only holograms registered in the manager are disabled, unregistered ones are left to their owners.
+        S.async(() -> hm.getHolograms(world).stream()
+                .filter(hologram -> hm.getHologram(hologram.getName()) == hologram)
                 .filter(Hologram::isEnabled)
-                .filter(hologram -> hologram.getLocation().getWorld().equals(world))
                 .forEach(hologram -> hologram.disable(DisableCause.WORLD_UNLOAD)));
     }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        DH.getBlockSnapshotCache().invalidate(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ());
+    }
 }
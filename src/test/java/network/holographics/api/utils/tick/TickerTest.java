@@ -0,0 +1,95 @@
+package network.holographics.api.utils.tick;
+
+import network.holographics.api.utils.scheduler.ManualScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickerTest {
+
+    /**
+     * The ticker task starts with a delay of 5 ticks.
+     */
+    private static final long START_DELAY = 5L;
+
+    private ManualScheduler scheduler;
+    private Ticker ticker;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ManualScheduler();
+        ticker = new Ticker(scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticker.destroy();
+    }
+
+    @Test
+    void ticksEachObjectAtItsInterval() {
+        CountingTicked everyTick = new CountingTicked("every-tick", 1L);
+        CountingTicked everyFifthTick = new CountingTicked("every-fifth-tick", 5L);
+        ticker.register(everyTick);
+        ticker.register(everyFifthTick);
+
+        // The first tick only schedules the new objects.
+        scheduler.advance(START_DELAY);
+        assertEquals(1L, ticker.getTicks());
+        assertEquals(0, everyTick.ticks.get());
+
+        scheduler.advance(100L);
+        assertEquals(101L, ticker.getTicks());
+        assertEquals(100, everyTick.ticks.get());
+        assertEquals(20, everyFifthTick.ticks.get());
+    }
+
+    @Test
+    void ticksOnTheAdvancingThread() {
+        CountingTicked ticked = new CountingTicked("ticked", 1L);
+        ticker.register(ticked);
+
+        scheduler.advance(START_DELAY + 10L);
+
+        assertEquals(10, ticked.ticks.get());
+        assertEquals(1, ticked.threads.size());
+        assertTrue(ticked.threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    void stopsTickingUnregisteredObjects() {
+        CountingTicked ticked = new CountingTicked("ticked", 1L);
+        ticker.register(ticked);
+        scheduler.advance(START_DELAY + 10L);
+
+        ticker.unregister(ticked.getId());
+        scheduler.advance(10L);
+
+        assertEquals(10, ticked.ticks.get());
+        assertEquals(0, ticker.size());
+    }
+
+    private static final class CountingTicked extends Ticked {
+
+        private final AtomicInteger ticks = new AtomicInteger();
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        private CountingTicked(String id, long interval) {
+            super(id, interval);
+        }
+
+        @Override
+        public void tick() {
+            ticks.incrementAndGet();
+            threads.add(Thread.currentThread());
+        }
+    }
+
+}